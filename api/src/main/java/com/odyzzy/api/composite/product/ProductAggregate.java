@@ -1,29 +1,45 @@
 package com.odyzzy.api.composite.product;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+// Parts left out with include= are null and therefore not serialized
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProductAggregate {
 
     private final int productId;
     private final String name;
-    private final int weight;
+    private final Integer weight;
     private final List<RecommendationSummary> recommendations;
     private final List<ReviewSummary> reviews;
+    private final Boolean hasMoreRecommendations;
+    private final Boolean hasMoreReviews;
+    private final RatingSummary ratings;
     private final ServiceAddresses serviceAddresses;
+    private final String version;
 
     public ProductAggregate(
             int productId,
             String name,
-            int weight,
+            Integer weight,
             List<RecommendationSummary> recommendations,
             List<ReviewSummary> reviews,
-            ServiceAddresses serviceAddresses) {
+            Boolean hasMoreRecommendations,
+            Boolean hasMoreReviews,
+            RatingSummary ratings,
+            ServiceAddresses serviceAddresses,
+            String version) {
         this.productId = productId;
         this.name = name;
         this.weight = weight;
         this.recommendations = recommendations;
         this.reviews = reviews;
+        this.hasMoreRecommendations = hasMoreRecommendations;
+        this.hasMoreReviews = hasMoreReviews;
+        this.ratings = ratings;
         this.serviceAddresses = serviceAddresses;
+        this.version = version;
     }
 
     public int getProductId() {
@@ -34,7 +50,7 @@ public class ProductAggregate {
         return name;
     }
 
-    public int getWeight() {
+    public Integer getWeight() {
         return weight;
     }
 
@@ -46,7 +62,23 @@ public class ProductAggregate {
         return reviews;
     }
 
+    public Boolean getHasMoreRecommendations() {
+        return hasMoreRecommendations;
+    }
+
+    public Boolean getHasMoreReviews() {
+        return hasMoreReviews;
+    }
+
+    public RatingSummary getRatings() {
+        return ratings;
+    }
+
     public ServiceAddresses getServiceAddresses() {
         return serviceAddresses;
     }
+
+    public String getVersion() {
+        return version;
+    }
 }
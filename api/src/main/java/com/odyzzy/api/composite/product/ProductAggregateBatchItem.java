@@ -0,0 +1,41 @@
+package com.odyzzy.api.composite.product;
+
+import org.springframework.http.HttpStatus;
+
+public class ProductAggregateBatchItem {
+
+    private final int productId;
+    private final HttpStatus httpStatus;
+    private final String message;
+    private final ProductAggregate product;
+
+    public ProductAggregateBatchItem() {
+        productId = 0;
+        httpStatus = null;
+        message = null;
+        product = null;
+    }
+
+    public ProductAggregateBatchItem(int productId, HttpStatus httpStatus, String message, ProductAggregate product) {
+        this.productId = productId;
+        this.httpStatus = httpStatus;
+        this.message = message;
+        this.product = product;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public ProductAggregate getProduct() {
+        return product;
+    }
+}
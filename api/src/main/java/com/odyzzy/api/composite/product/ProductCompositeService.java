@@ -6,6 +6,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 @Tag(name="ProductComposite", description = "REST API for composite product information")
 public interface ProductCompositeService {
@@ -22,5 +27,37 @@ public interface ProductCompositeService {
             value = "/product-composite/{productId}",
             produces = "application/json"
     )
-    ProductAggregate getProduct(@PathVariable int productId);
+    Mono<ProductAggregate> getProduct(
+            @PathVariable int productId,
+            @RequestParam(value = "include", required = false) List<String> include,
+            @RequestParam(value = "topRecommendations", required = false) Integer topRecommendations);
+
+    @Operation(summary = "${api.product-composite.get-composite-products.description}",
+    description = "${api.product-composite.get-composite-products.notes}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "${api.responseCodes.ok.description}"),
+            @ApiResponse(responseCode = "400", description = "${api.responseCodes.badRequest.description}"),
+            @ApiResponse(responseCode = "422", description = "${api.responseCodes.unprocessableEntity.description}")
+    })
+    @GetMapping(
+            value = "/product-composite",
+            produces = "application/json"
+    )
+    Flux<ProductAggregateBatchItem> getProducts(@RequestParam(value = "productIds") List<Integer> productIds);
+
+    @Operation(summary = "${api.product-composite.stream-composite-products.description}",
+    description = "${api.product-composite.stream-composite-products.notes}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "${api.responseCodes.ok.description}"),
+            @ApiResponse(responseCode = "400", description = "${api.responseCodes.badRequest.description}"),
+            @ApiResponse(responseCode = "422", description = "${api.responseCodes.unprocessableEntity.description}")
+    })
+    @GetMapping(
+            value = "/product-composite/stream",
+            produces = {"application/x-ndjson", "text/event-stream"}
+    )
+    Flux<ProductAggregate> streamProducts(
+            @RequestParam(value = "fromProductId", required = false) Integer fromProductId,
+            @RequestParam(value = "toProductId", required = false) Integer toProductId,
+            @RequestParam(value = "productIds", required = false) List<Integer> productIds);
 }
@@ -0,0 +1,40 @@
+package com.odyzzy.api.composite.product;
+
+import java.util.Map;
+
+public class RatingSummary {
+
+    private final long count;
+    private final Double average;
+    private final Integer min;
+    private final Integer max;
+    private final Map<Integer, Long> histogram;
+
+    public RatingSummary(long count, Double average, Integer min, Integer max, Map<Integer, Long> histogram) {
+        this.count = count;
+        this.average = average;
+        this.min = min;
+        this.max = max;
+        this.histogram = histogram;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    public Integer getMin() {
+        return min;
+    }
+
+    public Integer getMax() {
+        return max;
+    }
+
+    public Map<Integer, Long> getHistogram() {
+        return histogram;
+    }
+}
@@ -1,16 +1,18 @@
 package com.odyzzy.api.core.product;
 
 public class Product {
-    private final int productId;
-    private final String name;
-    private final int weight;
+    private int productId;
+    private String name;
+    private int weight;
     private String serviceAddress;
+    private Integer version;
 
     public Product() {
         productId = 0;
         name = null;
         weight = 0;
         serviceAddress = null;
+        version = null;
     }
 
     public Product(int productId, String name, int weight, String serviceAddress) {
@@ -24,14 +26,26 @@ public class Product {
         return productId;
     }
 
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
     public String getName() {
         return name;
     }
 
+    public void setName(String name) {
+        this.name = name;
+    }
+
     public int getWeight() {
         return weight;
     }
 
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
     public String getServiceAddress() {
         return serviceAddress;
     }
@@ -39,4 +53,12 @@ public class Product {
     public void setServiceAddress(String serviceAddress) {
         this.serviceAddress = serviceAddress;
     }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
@@ -1,22 +1,32 @@
 package com.odyzzy.api.core.product;
 
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 public interface ProductService {
 
     @GetMapping(
             value = "/products/{productId}",
-            produces = "application/json"
+            produces = {"application/json", "application/x-jackson-smile"}
+    )
+    Mono<Product> getProduct(@PathVariable int productId);
+
+    @GetMapping(
+            value = "/products",
+            produces = {"application/json", "application/x-jackson-smile"}
     )
-    Product getProduct(@PathVariable int productId);
+    Flux<Product> getProducts(@RequestParam(value = "productIds") List<Integer> productIds);
 
     @PostMapping(
             value = "/products",
-            consumes = "application/json",
-            produces = "application/json"
+            consumes = {"application/json", "application/x-jackson-smile"},
+            produces = {"application/json", "application/x-jackson-smile"}
     )
-    Product createProduct(@RequestBody Product product);
+    Mono<Product> createProduct(@RequestBody Product product);
 
     @DeleteMapping(value = "/products/{productId}")
-    void deleteProduct(@PathVariable int productId);
+    Mono<Void> deleteProduct(@PathVariable int productId);
 }
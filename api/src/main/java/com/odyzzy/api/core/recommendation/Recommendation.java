@@ -2,12 +2,13 @@ package com.odyzzy.api.core.recommendation;
 
 public class Recommendation {
 
-    private final int productId;
-    private final int recommendationId;
-    private final String author;
-    private final int rate;
-    private final String content;
-    private final String serviceAddress;
+    private int productId;
+    private int recommendationId;
+    private String author;
+    private int rate;
+    private String content;
+    private String serviceAddress;
+    private Integer version;
 
     public Recommendation() {
         productId = 0;
@@ -16,6 +17,7 @@ public class Recommendation {
         rate = 0;
         content = null;
         serviceAddress = null;
+        version = null;
     }
 
     public Recommendation(int productId, int recommendationId, String author, int rate, String content, String serviceAddress) {
@@ -31,23 +33,55 @@ public class Recommendation {
         return productId;
     }
 
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
     public int getRecommendationId() {
         return recommendationId;
     }
 
+    public void setRecommendationId(int recommendationId) {
+        this.recommendationId = recommendationId;
+    }
+
     public String getAuthor() {
         return author;
     }
 
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
     public int getRate() {
         return rate;
     }
 
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
     public String getContent() {
         return content;
     }
 
+    public void setContent(String content) {
+        this.content = content;
+    }
+
     public String getServiceAddress() {
         return serviceAddress;
     }
+
+    public void setServiceAddress(String serviceAddress) {
+        this.serviceAddress = serviceAddress;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
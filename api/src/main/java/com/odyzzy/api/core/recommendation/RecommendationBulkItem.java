@@ -0,0 +1,48 @@
+package com.odyzzy.api.core.recommendation;
+
+import org.springframework.http.HttpStatus;
+
+public class RecommendationBulkItem {
+
+    private final int index;
+    private final int productId;
+    private final int recommendationId;
+    private final HttpStatus httpStatus;
+    private final String message;
+
+    public RecommendationBulkItem() {
+        index = 0;
+        productId = 0;
+        recommendationId = 0;
+        httpStatus = null;
+        message = null;
+    }
+
+    public RecommendationBulkItem(int index, int productId, int recommendationId, HttpStatus httpStatus, String message) {
+        this.index = index;
+        this.productId = productId;
+        this.recommendationId = recommendationId;
+        this.httpStatus = httpStatus;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getRecommendationId() {
+        return recommendationId;
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
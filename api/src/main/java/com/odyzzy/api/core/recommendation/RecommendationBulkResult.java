@@ -0,0 +1,41 @@
+package com.odyzzy.api.core.recommendation;
+
+import java.util.List;
+
+public class RecommendationBulkResult {
+
+    private final int received;
+    private final int created;
+    private final int failed;
+    private final List<RecommendationBulkItem> failures;
+
+    public RecommendationBulkResult() {
+        received = 0;
+        created = 0;
+        failed = 0;
+        failures = null;
+    }
+
+    public RecommendationBulkResult(int received, int created, int failed, List<RecommendationBulkItem> failures) {
+        this.received = received;
+        this.created = created;
+        this.failed = failed;
+        this.failures = failures;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<RecommendationBulkItem> getFailures() {
+        return failures;
+    }
+}
@@ -1,6 +1,8 @@
 package com.odyzzy.api.core.recommendation;
 
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -8,17 +10,56 @@ public interface RecommendationService {
 
     @GetMapping(
             value = "/recommendations",
-            produces = "application/json"
+            produces = {"application/json", "application/x-jackson-smile"}
     )
-    List<Recommendation> getRecommendations(@RequestParam(value = "productId") int productId);
+    Flux<Recommendation> getRecommendations(
+            @RequestParam(value = "productId") int productId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) Integer after);
+
+    // Highest rating first, ties ordered by recommendationId. Read from an index, so content is not included.
+    @GetMapping(
+            value = "/recommendations",
+            params = {"top", "!productIds"},
+            produces = {"application/json", "application/x-jackson-smile"}
+    )
+    Flux<Recommendation> getTopRecommendations(
+            @RequestParam(value = "productId") int productId,
+            @RequestParam(value = "top") int top);
+
+    // limit applies per product, ordered by recommendationId. top returns the highest rated ones per product instead.
+    @GetMapping(
+            value = "/recommendations",
+            params = "productIds",
+            produces = {"application/json", "application/x-jackson-smile"}
+    )
+    Flux<Recommendation> getRecommendationsForProducts(
+            @RequestParam(value = "productIds") List<Integer> productIds,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "top", required = false) Integer top);
+
+    // Computed by the database, only the aggregated numbers are returned
+    @GetMapping(
+            value = "/recommendations/stats",
+            produces = {"application/json", "application/x-jackson-smile"}
+    )
+    Mono<RecommendationStats> getRecommendationStats(@RequestParam(value = "productId") int productId);
 
     @PostMapping(
             value = "/recommendations",
-            consumes = "application/json",
-            produces = "application/json"
+            consumes = {"application/json", "application/x-jackson-smile"},
+            produces = {"application/json", "application/x-jackson-smile"}
+    )
+    Mono<Recommendation> createRecommendation(@RequestBody Recommendation recommendation);
+
+    // Takes a JSON array or one recommendation per line, a failing item is reported instead of aborting the others
+    @PostMapping(
+            value = "/recommendations/bulk",
+            consumes = {"application/json", "application/x-ndjson", "application/x-jackson-smile"},
+            produces = {"application/json", "application/x-jackson-smile"}
     )
-    Recommendation createRecommendation(@RequestBody Recommendation recommendation);
+    Mono<RecommendationBulkResult> createRecommendations(@RequestBody Flux<Recommendation> recommendations);
 
     @DeleteMapping(value = "/recommendations")
-    void deleteRecommendation(@RequestParam(value = "productId") int productId);
+    Mono<Void> deleteRecommendation(@RequestParam(value = "productId") int productId);
 }
@@ -0,0 +1,56 @@
+package com.odyzzy.api.core.recommendation;
+
+import java.util.Map;
+
+public class RecommendationStats {
+
+    private final int productId;
+    private final long count;
+    private final Double average;
+    private final Integer min;
+    private final Integer max;
+    // Number of recommendations per rate, ordered by rate
+    private final Map<Integer, Long> histogram;
+
+    public RecommendationStats() {
+        productId = 0;
+        count = 0;
+        average = null;
+        min = null;
+        max = null;
+        histogram = null;
+    }
+
+    public RecommendationStats(int productId, long count, Double average, Integer min, Integer max, Map<Integer, Long> histogram) {
+        this.productId = productId;
+        this.count = count;
+        this.average = average;
+        this.min = min;
+        this.max = max;
+        this.histogram = histogram;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    public Integer getMin() {
+        return min;
+    }
+
+    public Integer getMax() {
+        return max;
+    }
+
+    public Map<Integer, Long> getHistogram() {
+        return histogram;
+    }
+}
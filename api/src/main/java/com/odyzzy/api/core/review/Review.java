@@ -2,12 +2,13 @@ package com.odyzzy.api.core.review;
 
 public class Review {
 
-    private final int productId;
-    private final int reviewId;
-    private final String author;
-    private final String subject;
-    private final String content;
-    private final String serviceAddress;
+    private int productId;
+    private int reviewId;
+    private String author;
+    private String subject;
+    private String content;
+    private String serviceAddress;
+    private Integer version;
 
     public Review() {
         productId = 0;
@@ -16,6 +17,7 @@ public class Review {
         subject = null;
         content = null;
         serviceAddress = null;
+        version = null;
     }
 
     public Review(int productId, int reviewId, String author, String subject, String content, String serviceAddress) {
@@ -31,23 +33,55 @@ public class Review {
         return productId;
     }
 
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
     public int getReviewId() {
         return reviewId;
     }
 
+    public void setReviewId(int reviewId) {
+        this.reviewId = reviewId;
+    }
+
     public String getAuthor() {
         return author;
     }
 
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
     public String getSubject() {
         return subject;
     }
 
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
     public String getContent() {
         return content;
     }
 
+    public void setContent(String content) {
+        this.content = content;
+    }
+
     public String getServiceAddress() {
         return serviceAddress;
     }
+
+    public void setServiceAddress(String serviceAddress) {
+        this.serviceAddress = serviceAddress;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
 }
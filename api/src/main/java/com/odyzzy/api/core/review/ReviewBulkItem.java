@@ -0,0 +1,48 @@
+package com.odyzzy.api.core.review;
+
+import org.springframework.http.HttpStatus;
+
+public class ReviewBulkItem {
+
+    private final int index;
+    private final int productId;
+    private final int reviewId;
+    private final HttpStatus httpStatus;
+    private final String message;
+
+    public ReviewBulkItem() {
+        index = 0;
+        productId = 0;
+        reviewId = 0;
+        httpStatus = null;
+        message = null;
+    }
+
+    public ReviewBulkItem(int index, int productId, int reviewId, HttpStatus httpStatus, String message) {
+        this.index = index;
+        this.productId = productId;
+        this.reviewId = reviewId;
+        this.httpStatus = httpStatus;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getReviewId() {
+        return reviewId;
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,41 @@
+package com.odyzzy.api.core.review;
+
+import java.util.List;
+
+public class ReviewBulkResult {
+
+    private final int received;
+    private final int created;
+    private final int failed;
+    private final List<ReviewBulkItem> failures;
+
+    public ReviewBulkResult() {
+        received = 0;
+        created = 0;
+        failed = 0;
+        failures = null;
+    }
+
+    public ReviewBulkResult(int received, int created, int failed, List<ReviewBulkItem> failures) {
+        this.received = received;
+        this.created = created;
+        this.failed = failed;
+        this.failures = failures;
+    }
+
+    public int getReceived() {
+        return received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<ReviewBulkItem> getFailures() {
+        return failures;
+    }
+}
@@ -1,6 +1,8 @@
 package com.odyzzy.api.core.review;
 
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 
@@ -8,17 +10,38 @@ public interface ReviewService {
 
     @GetMapping(
             value = "/reviews",
-            produces = "application/json"
+            produces = {"application/json", "application/x-jackson-smile"}
     )
-    List<Review> getReviews(@RequestParam(value = "productId") int productId);
+    Flux<Review> getReviews(
+            @RequestParam(value = "productId") int productId,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) Integer after);
+
+    // limit applies per product, the first reviews ordered by reviewId
+    @GetMapping(
+            value = "/reviews",
+            params = "productIds",
+            produces = {"application/json", "application/x-jackson-smile"}
+    )
+    Flux<Review> getReviewsForProducts(
+            @RequestParam(value = "productIds") List<Integer> productIds,
+            @RequestParam(value = "limit", required = false) Integer limit);
 
     @PostMapping(
             value = "/reviews",
-            consumes = "application/json",
-            produces = "application/json"
+            consumes = {"application/json", "application/x-jackson-smile"},
+            produces = {"application/json", "application/x-jackson-smile"}
+    )
+    Mono<Review> createReview(@RequestBody Review review);
+
+    // Takes a JSON array or one review per line, a failing item is reported instead of aborting the others
+    @PostMapping(
+            value = "/reviews/bulk",
+            consumes = {"application/json", "application/x-ndjson", "application/x-jackson-smile"},
+            produces = {"application/json", "application/x-jackson-smile"}
     )
-    Review createReview(@RequestBody Review review);
+    Mono<ReviewBulkResult> createReviews(@RequestBody Flux<Review> reviews);
 
     @DeleteMapping(value = "/reviews")
-    void deleteReview(@RequestParam(value = "productId") int productId);
+    Mono<Void> deleteReview(@RequestParam(value = "productId") int productId);
 }
@@ -0,0 +1,34 @@
+package com.odyzzy.benchmarks;
+
+import com.odyzzy.api.exceptions.NotFoundException;
+import com.odyzzy.util.http.HttpErrorInfo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The error path builds an exception and then an HttpErrorInfo from it. Both are measured
+ * separately, since filling in the stack trace usually dominates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+
+    private int productId = 13;
+
+    @Benchmark
+    public HttpErrorInfo httpErrorInfo() {
+        return new HttpErrorInfo(HttpStatus.NOT_FOUND, "/product-composite/" + productId, "No product found for ProductId: " + productId);
+    }
+
+    @Benchmark
+    public HttpErrorInfo notFoundExceptionAndHttpErrorInfo() {
+        NotFoundException ex = new NotFoundException("No product found for ProductId: " + productId);
+        return new HttpErrorInfo(HttpStatus.NOT_FOUND, "/product-composite/" + productId, ex.getMessage());
+    }
+}
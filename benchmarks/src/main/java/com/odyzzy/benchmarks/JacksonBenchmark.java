@@ -0,0 +1,72 @@
+package com.odyzzy.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odyzzy.api.composite.product.ProductAggregate;
+import com.odyzzy.api.composite.product.RecommendationSummary;
+import com.odyzzy.api.composite.product.ReviewSummary;
+import com.odyzzy.api.composite.product.ServiceAddresses;
+import com.odyzzy.api.core.review.Review;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Serializes the composite response and deserializes the review-service response the way
+ * WebFlux does, with an ObjectMapper from Jackson2ObjectMapperBuilder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    private static final TypeReference<List<Review>> REVIEWS = new TypeReference<>() {
+    };
+
+    @Param({"20"})
+    public int listSize;
+
+    private ObjectMapper mapper;
+    private ProductAggregate aggregate;
+    private byte[] reviewsJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<RecommendationSummary> recommendationSummaries = IntStream.rangeClosed(1, listSize)
+                .mapToObj(i -> new RecommendationSummary(i, "Author " + i, i % 5))
+                .collect(Collectors.toList());
+        List<ReviewSummary> reviewSummaries = IntStream.rangeClosed(1, listSize)
+                .mapToObj(i -> new ReviewSummary(i, "Author " + i, "Subject " + i))
+                .collect(Collectors.toList());
+        ServiceAddresses serviceAddresses = new ServiceAddresses(
+                "composite/172.18.0.9:8080", "product/172.18.0.5:8080", "review/172.18.0.7:8080", "recommendation/172.18.0.6:8080");
+        aggregate = new ProductAggregate(1, "Product 1", 140, recommendationSummaries, reviewSummaries,
+                true, true, null, serviceAddresses, "9e107d9d372bb6826bd81d3542a419d6");
+
+        List<Review> reviews = IntStream.rangeClosed(1, listSize)
+                .mapToObj(i -> new Review(1, i, "Author " + i, "Subject " + i,
+                        "Content of review " + i + ", long enough to look like a real one.", "review/172.18.0.7:8080"))
+                .collect(Collectors.toList());
+        reviewsJson = mapper.writeValueAsBytes(reviews);
+    }
+
+    @Benchmark
+    public byte[] serializeProductAggregate() throws IOException {
+        return mapper.writeValueAsBytes(aggregate);
+    }
+
+    @Benchmark
+    public List<Review> deserializeReviews() throws IOException {
+        return mapper.readValue(reviewsJson, REVIEWS);
+    }
+}
@@ -0,0 +1,42 @@
+package com.odyzzy.benchmarks;
+
+import com.odyzzy.api.core.product.Product;
+import com.odyzzy.productservice.persistence.ProductEntity;
+import com.odyzzy.productservice.services.ProductMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+
+    private ProductMapper mapper;
+    private ProductEntity entity;
+    private Product api;
+
+    @Setup
+    public void setUp() {
+        mapper = Mappers.getMapper(ProductMapper.class);
+
+        entity = new ProductEntity(1, "Product 1", 140);
+        entity.setId("6345f1d2c8a4b21e3c9d0f17");
+        entity.setVersion(3);
+        api = new Product(1, "Product 1", 140, "product/172.18.0.5:8080");
+    }
+
+    @Benchmark
+    public Product entityToApi() {
+        return mapper.entityToApi(entity);
+    }
+
+    @Benchmark
+    public ProductEntity apiToEntity() {
+        return mapper.apiToEntity(api);
+    }
+}
@@ -0,0 +1,102 @@
+package com.odyzzy.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.odyzzy.api.core.product.Product;
+import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.api.core.review.Review;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares JSON and Smile for the payloads the composite fetches per product: one product,
+ * one page of reviews and one page of recommendations.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar WireFormatBenchmark
+ * </pre>
+ *
+ * Payload sizes are printed once per fork, the timings are per request, that is for encoding
+ * or decoding all three payloads. {@link BenchmarkMain} adds the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<Review>> REVIEWS = new TypeReference<>() {
+    };
+    private static final TypeReference<List<Recommendation>> RECOMMENDATIONS = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile"})
+    public String format;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private ObjectMapper mapper;
+    private Product product;
+    private List<Review> reviews;
+    private List<Recommendation> recommendations;
+    private byte[] productBytes;
+    private byte[] reviewsBytes;
+    private byte[] recommendationsBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = "smile".equals(format) ? new SmileMapper() : new ObjectMapper();
+
+        String serviceAddress = "review-7d9f8c6b5-x2k4q/172.18.0.7:8080";
+        product = new Product(1, "Product 1", 140, serviceAddress);
+        product.setVersion(3);
+        reviews = IntStream.rangeClosed(1, pageSize)
+                .mapToObj(i -> {
+                    Review review = new Review(1, i, "Author " + i, "Subject of review " + i,
+                            "Content of review " + i + ", long enough to look like a real one.", serviceAddress);
+                    review.setVersion(0);
+                    return review;
+                })
+                .collect(Collectors.toList());
+        recommendations = IntStream.rangeClosed(1, pageSize)
+                .mapToObj(i -> {
+                    Recommendation recommendation = new Recommendation(1, i, "Author " + i, i % 5,
+                            "Content of recommendation " + i, serviceAddress);
+                    recommendation.setVersion(0);
+                    return recommendation;
+                })
+                .collect(Collectors.toList());
+
+        productBytes = mapper.writeValueAsBytes(product);
+        reviewsBytes = mapper.writeValueAsBytes(reviews);
+        recommendationsBytes = mapper.writeValueAsBytes(recommendations);
+        System.out.printf("%n%s payload bytes: product=%d, reviews=%d, recommendations=%d, total=%d%n",
+                format, productBytes.length, reviewsBytes.length, recommendationsBytes.length,
+                productBytes.length + reviewsBytes.length + recommendationsBytes.length);
+    }
+
+    @Benchmark
+    public void serialize(Blackhole blackhole) throws IOException {
+        blackhole.consume(mapper.writeValueAsBytes(product));
+        blackhole.consume(mapper.writeValueAsBytes(reviews));
+        blackhole.consume(mapper.writeValueAsBytes(recommendations));
+    }
+
+    @Benchmark
+    public void deserialize(Blackhole blackhole) throws IOException {
+        blackhole.consume(mapper.readValue(productBytes, Product.class));
+        blackhole.consume(mapper.readValue(reviewsBytes, REVIEWS));
+        blackhole.consume(mapper.readValue(recommendationsBytes, RECOMMENDATIONS));
+    }
+}
@@ -0,0 +1,64 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.odyzzy.api.composite.product.ProductAggregate;
+import com.odyzzy.api.core.product.Product;
+import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.api.core.review.Review;
+import com.odyzzy.util.http.ServiceUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Lives in the service package to reach the package-private createProductAggregate.
+ * 21 elements is what the composite fetches for its default page size of 20.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductAggregateBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "5", "21"})
+    public int listSize;
+
+    private ProductCompositeServiceImpl service;
+    private Product product;
+    private List<Review> reviews;
+    private List<Recommendation> recommendations;
+
+    @Setup
+    public void setUp() {
+        service = new ProductCompositeServiceImpl(new ServiceUtil("8080"), null, null, null, 100, PAGE_SIZE, PAGE_SIZE, 0, 8, 100000);
+
+        String serviceAddress = "core-7d9f8c6b5-x2k4q/172.18.0.7:8080";
+        product = new Product(1, "Product 1", 140, serviceAddress);
+        product.setVersion(3);
+        reviews = IntStream.rangeClosed(1, listSize)
+                .mapToObj(i -> {
+                    Review review = new Review(1, i, "Author " + i, "Subject " + i, "Content " + i, serviceAddress);
+                    review.setVersion(0);
+                    return review;
+                })
+                .collect(Collectors.toList());
+        recommendations = IntStream.rangeClosed(1, listSize)
+                .mapToObj(i -> {
+                    Recommendation recommendation = new Recommendation(1, i, "Author " + i, i % 5, "Content " + i, serviceAddress);
+                    recommendation.setVersion(0);
+                    return recommendation;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ProductAggregate createProductAggregate() {
+        return service.createProductAggregate(product, reviews, recommendations, "composite/172.18.0.9:8080");
+    }
+}
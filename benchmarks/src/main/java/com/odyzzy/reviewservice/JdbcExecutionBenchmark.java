@@ -0,0 +1,128 @@
+package com.odyzzy.reviewservice;
+
+import com.odyzzy.api.core.review.Review;
+import com.odyzzy.reviewservice.service.ReviewMapperImpl;
+import com.odyzzy.reviewservice.service.ReviewServiceImpl;
+import com.odyzzy.util.http.ServiceUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Reads the reviews of a product concurrentRequests times per operation through ReviewServiceImpl, on the
+ * jdbcScheduler that ReviewServiceApplication builds, against a real MySQL with a Hikari pool of
+ * poolSize connections. Compares a thread pool sized to the connection pool with larger ones. Queries per
+ * second are ops/s times concurrentRequests. Memory shows up as gc.alloc.rate from the GC profiler and
+ * as the peak thread count printed at the end of each trial.
+ *
+ * <pre>
+ * docker-compose up -d mysql
+ * java -jar benchmarks/target/benchmarks.jar JdbcExecutionBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JdbcExecutionBenchmark {
+
+    private static final int PRODUCTS = 100;
+    private static final int REVIEWS_PER_PRODUCT = 10;
+
+    @Param({"10", "50", "200"})
+    public int threadPoolSize;
+
+    @Param("10")
+    public int poolSize;
+
+    @Param("200")
+    public int concurrentRequests;
+
+    @Param("jdbc:mysql://localhost/review-db?rewriteBatchedStatements=true")
+    public String url;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private ConfigurableApplicationContext context;
+    private ReviewServiceImpl service;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.config.name=jdbc-execution-benchmark",
+                        "server.port=0",
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=user",
+                        "spring.datasource.password=pwd",
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "app.jdbc.thread-pool-size=" + threadPoolSize,
+                        "app.jdbc.task-queue-size=" + concurrentRequests,
+                        "app.bulk.chunk-size=500")
+                .run();
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE TABLE reviews");
+        service = context.getBean(ReviewServiceImpl.class);
+        List<Review> reviews = IntStream.rangeClosed(1, PRODUCTS).boxed()
+                .flatMap(productId -> IntStream.rangeClosed(1, REVIEWS_PER_PRODUCT)
+                        .mapToObj(reviewId -> new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId, "Content " + reviewId, null)))
+                .collect(Collectors.toList());
+        service.createReviews(Flux.fromIterable(reviews)).block();
+        threads.resetPeakThreadCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.println("peak live threads: " + threads.getPeakThreadCount());
+        context.close();
+    }
+
+    @Benchmark
+    public List<Review> concurrentReads() {
+        return Flux.range(0, concurrentRequests)
+                .flatMap(i -> service.getReviews(i % PRODUCTS + 1, null, null), concurrentRequests)
+                .collectList()
+                .block();
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            MongoReactiveAutoConfiguration.class,
+            MongoReactiveDataAutoConfiguration.class,
+            MongoReactiveRepositoriesAutoConfiguration.class})
+    @Import({ReviewServiceImpl.class, ReviewMapperImpl.class, ServiceUtil.class})
+    static class BenchmarkConfiguration {
+
+        // The scheduler the service runs on, built by the application itself
+        @Bean
+        Scheduler jdbcScheduler(
+                @Value("${app.jdbc.thread-pool-size}") int threadPoolSize,
+                @Value("${app.jdbc.task-queue-size}") int taskQueueSize) {
+            return new ReviewServiceApplication(threadPoolSize, taskQueueSize).jdbcScheduler();
+        }
+    }
+}
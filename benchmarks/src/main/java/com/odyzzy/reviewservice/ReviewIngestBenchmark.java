@@ -0,0 +1,112 @@
+package com.odyzzy.reviewservice;
+
+import com.odyzzy.api.core.review.Review;
+import com.odyzzy.reviewservice.service.ReviewMapperImpl;
+import com.odyzzy.reviewservice.service.ReviewServiceImpl;
+import com.odyzzy.util.http.ServiceUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Inserts rowsPerOperation reviews per operation into a real MySQL, either with one createReview call
+ * per row as before or through createReviews in chunked JDBC batches. Rows per second are ops/s times
+ * rowsPerOperation.
+ *
+ * <pre>
+ * docker-compose up -d mysql
+ * java -jar benchmarks/target/benchmarks.jar ReviewIngestBenchmark
+ * </pre>
+ *
+ * The shaded jar holds the application.yml of several services, so the context is configured here.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReviewIngestBenchmark {
+
+    @Param({"one-at-a-time", "bulk"})
+    public String path;
+
+    @Param("1000")
+    public int rowsPerOperation;
+
+    @Param("jdbc:mysql://localhost/review-db?rewriteBatchedStatements=true")
+    public String url;
+
+    private ConfigurableApplicationContext context;
+    private ReviewServiceImpl service;
+    private int nextProductId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(BenchmarkConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.config.name=review-ingest-benchmark",
+                        "server.port=0",
+                        "spring.datasource.url=" + url,
+                        "spring.datasource.username=user",
+                        "spring.datasource.password=pwd",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+                        "spring.jpa.properties.hibernate.jdbc.batch_versioned_data=true",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "app.bulk.chunk-size=500")
+                .run();
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE TABLE reviews");
+        service = context.getBean(ReviewServiceImpl.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insert() {
+        int productId = ++nextProductId;
+        List<Review> reviews = IntStream.rangeClosed(1, rowsPerOperation)
+                .mapToObj(reviewId -> new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId, "Content " + reviewId, null))
+                .collect(Collectors.toList());
+        if ("bulk".equals(path)) {
+            return service.createReviews(Flux.fromIterable(reviews)).block().getCreated();
+        }
+        reviews.forEach(review -> service.createReview(review).block());
+        return reviews.size();
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+            MongoReactiveAutoConfiguration.class,
+            MongoReactiveDataAutoConfiguration.class,
+            MongoReactiveRepositoriesAutoConfiguration.class})
+    @Import({ReviewServiceImpl.class, ReviewMapperImpl.class, ServiceUtil.class})
+    static class BenchmarkConfiguration {
+
+        @Bean
+        Scheduler jdbcScheduler() {
+            return Schedulers.newBoundedElastic(10, 100, "jdbc-pool");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.odyzzy.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service time of a stub endpoint. Parsed from specs such as {@code fixed:5}, {@code uniform:2-10}
+ * or {@code lognormal:5,50}, where the numbers are milliseconds and the lognormal arguments are
+ * the median and the 99th percentile.
+ */
+abstract class LatencyDistribution {
+
+    private static final double Z_99 = 2.3263478740;
+
+    abstract long sampleNanos();
+
+    Duration sample() {
+        return Duration.ofNanos(sampleNanos());
+    }
+
+    static LatencyDistribution parse(String spec) {
+        String[] typeAndArgs = spec.split(":", 2);
+        String args = typeAndArgs.length > 1 ? typeAndArgs[1] : "";
+        switch (typeAndArgs[0]) {
+            case "fixed":
+                return fixed(millisToNanos(args));
+            case "uniform": {
+                String[] bounds = args.split("-");
+                return uniform(millisToNanos(bounds[0]), millisToNanos(bounds[1]));
+            }
+            case "lognormal": {
+                String[] medianAndP99 = args.split(",");
+                return logNormal(millisToNanos(medianAndP99[0]), millisToNanos(medianAndP99[1]));
+            }
+            default:
+                throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+        }
+    }
+
+    static LatencyDistribution fixed(long nanos) {
+        return new LatencyDistribution() {
+            @Override
+            long sampleNanos() {
+                return nanos;
+            }
+        };
+    }
+
+    static LatencyDistribution uniform(long minNanos, long maxNanos) {
+        if (maxNanos < minNanos) {
+            throw new IllegalArgumentException("Expected min <= max, got: " + minNanos + " > " + maxNanos);
+        }
+        return new LatencyDistribution() {
+            @Override
+            long sampleNanos() {
+                return minNanos == maxNanos ? minNanos : ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+            }
+        };
+    }
+
+    static LatencyDistribution logNormal(long medianNanos, long p99Nanos) {
+        if (p99Nanos < medianNanos) {
+            throw new IllegalArgumentException("Expected median <= p99, got: " + medianNanos + " > " + p99Nanos);
+        }
+        double mu = Math.log(medianNanos);
+        double sigma = Math.log((double) p99Nanos / medianNanos) / Z_99;
+        return new LatencyDistribution() {
+            @Override
+            long sampleNanos() {
+                return (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+            }
+        };
+    }
+
+    private static long millisToNanos(String millis) {
+        return (long) (Double.parseDouble(millis.trim()) * 1_000_000);
+    }
+}
@@ -0,0 +1,85 @@
+package com.odyzzy.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options in the form {@code --name=value}. Durations are given in seconds,
+ * latency distributions as described in {@link LatencyDistribution}.
+ */
+class LoadTestConfig {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("target", "http://localhost:7000");
+        DEFAULTS.put("rate", "200");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("products", "1000");
+        DEFAULTS.put("zipf-exponent", "0.99");
+        DEFAULTS.put("reviews-per-product", "5");
+        DEFAULTS.put("recommendations-per-product", "5");
+        DEFAULTS.put("product-latency", "lognormal:5,50");
+        DEFAULTS.put("review-latency", "lognormal:5,50");
+        DEFAULTS.put("recommendation-latency", "lognormal:5,50");
+        DEFAULTS.put("product-port", "7001");
+        DEFAULTS.put("recommendation-port", "7002");
+        DEFAULTS.put("review-port", "7003");
+        DEFAULTS.put("stubs", "true");
+        DEFAULTS.put("driver", "true");
+        DEFAULTS.put("connections", "500");
+        DEFAULTS.put("max-in-flight", "10000");
+        DEFAULTS.put("timeout", "10");
+        DEFAULTS.put("results", "load-test-results.txt");
+    }
+
+    private final Map<String, String> values;
+
+    LoadTestConfig(String[] args) {
+        this(DEFAULTS, args);
+    }
+
+    LoadTestConfig(Map<String, String> defaults, String[] args) {
+        values = new LinkedHashMap<>(defaults);
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (!defaults.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option: " + name + ", known options: " + defaults.keySet());
+            }
+            values.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+    }
+
+    String string(String name) {
+        return values.get(name);
+    }
+
+    int integer(String name) {
+        return Integer.parseInt(values.get(name));
+    }
+
+    double decimal(String name) {
+        return Double.parseDouble(values.get(name));
+    }
+
+    boolean flag(String name) {
+        return Boolean.parseBoolean(values.get(name));
+    }
+
+    Duration seconds(String name) {
+        return Duration.ofMillis((long) (decimal(name) * 1000));
+    }
+
+    LatencyDistribution latency(String name) {
+        return LatencyDistribution.parse(values.get(name));
+    }
+
+    Map<String, String> values() {
+        return values;
+    }
+}
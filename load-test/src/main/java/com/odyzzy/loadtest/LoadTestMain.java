@@ -0,0 +1,77 @@
+package com.odyzzy.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Starts the stub core services and drives the composite at a fixed rate.
+ *
+ * <pre>
+ * mvn -f load-test/pom.xml package
+ * java -jar load-test/target/load-test.jar --stubs=true --driver=false          # stubs only
+ * java -jar microservices/product-composite-service/target/*-exec.jar          # against the stubs
+ * java -jar load-test/target/load-test.jar --stubs=false --rate=500 --duration=60
+ * </pre>
+ *
+ * Disable the composite's aggregate cache with --app.product-composite.cache.enabled=false to load
+ * the downstream path instead of the cache.
+ */
+public class LoadTestMain {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTestMain.class);
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig(args);
+
+        StubServers stubs = null;
+        if (config.flag("stubs")) {
+            stubs = new StubServers(
+                    config.integer("products"),
+                    config.integer("reviews-per-product"),
+                    config.integer("recommendations-per-product"));
+            stubs.startProductService(config.integer("product-port"), config.latency("product-latency"));
+            stubs.startReviewService(config.integer("review-port"), config.latency("review-latency"));
+            stubs.startRecommendationService(config.integer("recommendation-port"), config.latency("recommendation-latency"));
+            LOGGER.info("Started stub services on ports {}, {} and {}",
+                    config.string("product-port"), config.string("review-port"), config.string("recommendation-port"));
+        }
+
+        if (!config.flag("driver")) {
+            LOGGER.info("Driver disabled, stubs keep running until the process is stopped");
+            Thread.currentThread().join();
+            return;
+        }
+
+        OpenModelDriver driver = new OpenModelDriver(
+                config.string("target"),
+                config.integer("connections"),
+                config.seconds("timeout"),
+                new ZipfianGenerator(config.integer("products"), config.decimal("zipf-exponent")),
+                config.decimal("rate"),
+                config.seconds("warmup"),
+                config.seconds("duration"),
+                config.integer("max-in-flight"));
+        LOGGER.info("Driving {} at {} requests/s for {}s after {}s of warmup",
+                config.string("target"), config.string("rate"), config.string("duration"), config.string("warmup"));
+
+        LoadTestResults results = driver.run();
+        if (stubs != null) {
+            // Connections the composite opened to the core services, compare http11 and h2c with
+            // --app.product-composite.http-client.protocol on the composite
+            results.measurement("stub.connections.opened", stubs.openedConnections())
+                    .measurement("stub.connections.peak", stubs.peakConnections());
+        }
+        Path file = Paths.get(config.string("results"));
+        results.write(file, config.values());
+        results.write(System.out, config.values());
+        LOGGER.info("Wrote results to {}", file.toAbsolutePath());
+
+        if (stubs != null) {
+            stubs.stop();
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.odyzzy.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes one {@code name=value} per line in a fixed order followed by the HdrHistogram percentile
+ * distribution in milliseconds, so two result files can be compared with a plain diff.
+ */
+class LoadTestResults {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Histogram latencies;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+    private final Map<String, String> measurements = new LinkedHashMap<>();
+    private final long completed;
+    private final Duration duration;
+
+    LoadTestResults(Histogram latencies, Map<String, LongAdder> outcomes, long completed, Duration duration) {
+        this.latencies = latencies;
+        outcomes.forEach((outcome, count) -> this.outcomes.put(outcome, count.sum()));
+        this.completed = completed;
+        this.duration = duration;
+    }
+
+    // Extra name=value lines written after the latencies, e.g. resource usage measured by the caller
+    LoadTestResults measurement(String name, double value) {
+        measurements.put(name, format(value));
+        return this;
+    }
+
+    long errors() {
+        return outcomes.entrySet().stream()
+                .filter(entry -> !entry.getKey().startsWith("2"))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+    }
+
+    void write(PrintStream out, Map<String, String> config) {
+        config.forEach((name, value) -> out.println("config." + name + "=" + value));
+
+        long attempted = outcomes.values().stream().mapToLong(Long::longValue).sum();
+        out.println("requests=" + attempted);
+        out.println("throughput.rps=" + format(completed / (duration.toMillis() / 1000.0)));
+        out.println("errors=" + errors());
+        out.println("error.rate=" + format(attempted == 0 ? 0 : (double) errors() / attempted));
+        outcomes.forEach((outcome, count) -> out.println("outcome." + outcome + "=" + count));
+
+        out.println("latency.ms.mean=" + format(latencies.getMean() / 1000.0));
+        for (double percentile : PERCENTILES) {
+            out.println("latency.ms.p" + format(percentile) + "=" + format(latencies.getValueAtPercentile(percentile) / 1000.0));
+        }
+        out.println("latency.ms.max=" + format(latencies.getMaxValue() / 1000.0));
+        measurements.forEach((name, value) -> out.println(name + "=" + value));
+
+        out.println();
+        latencies.outputPercentileDistribution(out, 5, 1000.0);
+    }
+
+    void write(Path file, Map<String, String> config) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+            write(out, config);
+        }
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value).replaceAll("\\.?0+$", "");
+    }
+}
@@ -0,0 +1,120 @@
+package com.odyzzy.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Sends requests at a fixed arrival rate regardless of how fast responses come back (open model).
+ * Latency is measured from the intended send time, so a stalled composite shows up in the
+ * percentiles instead of silently lowering the request rate (coordinated omission).
+ */
+class OpenModelDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient client;
+    private final Supplier<String> uris;
+    private final double ratePerSecond;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int maxInFlight;
+
+    private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+
+    OpenModelDriver(String target, int connections, Duration timeout, ZipfianGenerator productIds,
+                    double ratePerSecond, Duration warmup, Duration duration, int maxInFlight) {
+        this(HttpClient.create(ConnectionProvider.builder("load-test")
+                                .maxConnections(connections)
+                                .pendingAcquireMaxCount(-1)
+                                .build())
+                        .baseUrl(target)
+                        .responseTimeout(timeout),
+                () -> "/product-composite/" + productIds.next(),
+                ratePerSecond, warmup, duration, maxInFlight);
+    }
+
+    OpenModelDriver(HttpClient client, Supplier<String> uris, double ratePerSecond, Duration warmup, Duration duration, int maxInFlight) {
+        this.client = client;
+        this.uris = uris;
+        this.ratePerSecond = ratePerSecond;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.maxInFlight = maxInFlight;
+    }
+
+    LoadTestResults run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = intended >= measureFrom;
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    count("dropped");
+                }
+                continue;
+            }
+            send(intended, measured);
+        }
+
+        awaitInFlight(Duration.ofSeconds(30));
+        return new LoadTestResults(latencies, outcomes, completed.sum(), duration);
+    }
+
+    private void send(long intended, boolean measured) {
+        inFlight.incrementAndGet();
+        client.get()
+                .uri(uris.get())
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .subscribe(
+                        status -> complete(intended, measured, String.valueOf(status)),
+                        error -> complete(intended, measured, error.getClass().getSimpleName()));
+    }
+
+    private void complete(long intended, boolean measured, String outcome) {
+        inFlight.decrementAndGet();
+        if (!measured) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+        latencies.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        completed.increment();
+        count(outcome);
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    private void awaitInFlight(Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
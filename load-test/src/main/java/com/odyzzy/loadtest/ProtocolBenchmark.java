@@ -0,0 +1,113 @@
+package com.odyzzy.loadtest;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares HTTP/1.1 keep-alive with h2c on the hop from the composite to a core service. A stub
+ * recommendation-service is driven at a fixed rate through a Reactor Netty client set up like the
+ * composite's: HTTP/1.1 with a large pool, or h2c multiplexed over a few connections. For each
+ * protocol the latency percentiles are reported together with the TCP connections that were
+ * opened, the most that were open at once and the CPU used. Client and stub share the JVM, so
+ * the CPU figure covers both ends of the connection.
+ *
+ * <pre>
+ * mvn -f load-test/pom.xml package
+ * java -cp load-test/target/load-test.jar com.odyzzy.loadtest.ProtocolBenchmark --rate=5000 --duration=60
+ * </pre>
+ *
+ * One result file is written per protocol, compare them with a plain diff.
+ */
+public class ProtocolBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProtocolBenchmark.class);
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("protocols", "http11,h2c");
+        DEFAULTS.put("rate", "2000");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("products", "1000");
+        DEFAULTS.put("zipf-exponent", "0.99");
+        DEFAULTS.put("recommendations-per-product", "5");
+        DEFAULTS.put("latency", "lognormal:5,50");
+        DEFAULTS.put("port", "7012");
+        DEFAULTS.put("http11-connections", "500");
+        DEFAULTS.put("h2c-connections", "2");
+        DEFAULTS.put("max-in-flight", "10000");
+        DEFAULTS.put("timeout", "10");
+        DEFAULTS.put("results", "protocol-benchmark");
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig(DEFAULTS, args);
+        for (String name : config.string("protocols").split(",")) {
+            LoadTestResults results = run(config, protocol(name));
+            Path file = Paths.get(config.string("results") + "-" + name + ".txt");
+            results.write(file, config.values());
+            results.write(System.out, config.values());
+            LOGGER.info("Wrote {} results to {}", name, file.toAbsolutePath());
+        }
+        System.exit(0);
+    }
+
+    static LoadTestResults run(LoadTestConfig config, HttpProtocol protocol) throws InterruptedException {
+        StubServers stubs = new StubServers(config.integer("products"), 0, config.integer("recommendations-per-product"));
+        stubs.startRecommendationService(config.integer("port"), config.latency("latency"));
+
+        int connections = (protocol == HttpProtocol.H2C) ? config.integer("h2c-connections") : config.integer("http11-connections");
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("protocol-benchmark")
+                .maxConnections(connections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(connectionProvider)
+                .protocol(protocol)
+                .baseUrl("http://localhost:" + config.string("port"))
+                .responseTimeout(config.seconds("timeout"));
+        ZipfianGenerator productIds = new ZipfianGenerator(config.integer("products"), config.decimal("zipf-exponent"));
+        OpenModelDriver driver = new OpenModelDriver(client, () -> "/recommendations?productId=" + productIds.next() + "&limit=5",
+                config.decimal("rate"), config.seconds("warmup"), config.seconds("duration"), config.integer("max-in-flight"));
+        LOGGER.info("Driving the stub over {} with at most {} connections at {} requests/s", protocol, connections, config.string("rate"));
+
+        try {
+            long cpuStart = processCpuNanos();
+            long wallStart = System.nanoTime();
+            LoadTestResults results = driver.run();
+            double cpuCores = (double) (processCpuNanos() - cpuStart) / (System.nanoTime() - wallStart);
+            return results
+                    .measurement("connections.opened", stubs.openedConnections())
+                    .measurement("connections.peak", stubs.peakConnections())
+                    .measurement("cpu.cores.mean", cpuCores);
+        } finally {
+            connectionProvider.disposeLater().block();
+            stubs.stop();
+        }
+    }
+
+    private static HttpProtocol protocol(String name) {
+        switch (name) {
+            case "http11":
+                return HttpProtocol.HTTP11;
+            case "h2c":
+                return HttpProtocol.H2C;
+            default:
+                throw new IllegalArgumentException("Unknown protocol: " + name + ", expected http11 or h2c");
+        }
+    }
+
+    private static long processCpuNanos() {
+        return ((OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
@@ -0,0 +1,155 @@
+package com.odyzzy.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the time from starting a container to the first successful request, for every service
+ * in the default mode and in fast-start mode (see docker-compose.fast-start.yml). Each run starts a
+ * fresh container next to the ones already started by docker-compose, so the databases and, for
+ * the composite, the core services are up.
+ *
+ * <pre>
+ * mvn package &amp;&amp; docker-compose build &amp;&amp; docker-compose up -d
+ * java -cp load-test/target/load-test.jar com.odyzzy.loadtest.StartupBenchmark --runs=5
+ * </pre>
+ *
+ * Any response below 500 counts as successful, a 404 for an unknown product still went through the
+ * whole request path including the database.
+ */
+public class StartupBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+    private static final Map<String, String> PROBES = new LinkedHashMap<>();
+    private static final Map<String, List<String>> MODES = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("compose-file", "docker-compose.yml");
+        DEFAULTS.put("services", "product,recommendation,review,product-composite");
+        DEFAULTS.put("runs", "5");
+        DEFAULTS.put("port", "18080");
+        DEFAULTS.put("timeout", "180");
+        DEFAULTS.put("results", "startup-benchmark-results.txt");
+
+        PROBES.put("product", "/product/1");
+        PROBES.put("recommendation", "/recommendation?productId=1");
+        PROBES.put("review", "/review?productId=1");
+        PROBES.put("product-composite", "/product-composite/1");
+
+        MODES.put("default", Collections.singletonList("SPRING_PROFILES_ACTIVE=docker"));
+        MODES.put("fast-start", Arrays.asList(
+                "SPRING_PROFILES_ACTIVE=docker,fast-start",
+                "JAVA_TOOL_OPTIONS=-XX:SharedArchiveFile=application.jsa -Xshare:auto"));
+    }
+
+    private final LoadTestConfig config;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    StartupBenchmark(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig(DEFAULTS, args);
+        Map<String, List<Long>> results = new StartupBenchmark(config).run();
+
+        Path file = Paths.get(config.string("results"));
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, StandardCharsets.UTF_8)) {
+            write(out, config.values(), results);
+        }
+        write(System.out, config.values(), results);
+        LOGGER.info("Wrote results to {}", file.toAbsolutePath());
+    }
+
+    Map<String, List<Long>> run() throws IOException, InterruptedException {
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        for (String service : config.string("services").split(",")) {
+            String probe = PROBES.get(service);
+            if (probe == null) {
+                throw new IllegalArgumentException("Unknown service: " + service + ", known services: " + PROBES.keySet());
+            }
+            for (Map.Entry<String, List<String>> mode : MODES.entrySet()) {
+                List<Long> millis = new ArrayList<>();
+                for (int i = 0; i < config.integer("runs"); i++) {
+                    millis.add(timeToFirstRequest(service, probe, mode.getValue()));
+                    LOGGER.info("{} in {} mode answered after {} ms", service, mode.getKey(), millis.get(millis.size() - 1));
+                }
+                results.put(service + "." + mode.getKey(), millis);
+            }
+        }
+        return results;
+    }
+
+    private long timeToFirstRequest(String service, String probe, List<String> environment) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                "docker-compose", "-f", config.string("compose-file"), "run", "-d", "--rm", "--no-deps",
+                "-p", config.string("port") + ":8080"));
+        environment.forEach(variable -> command.addAll(Arrays.asList("-e", variable)));
+        command.add(service);
+
+        long start = System.nanoTime();
+        String containerId = execute(command);
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + config.string("port") + probe))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            long deadline = start + config.seconds("timeout").toNanos();
+            while (System.nanoTime() < deadline) {
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException notListeningYet) {
+                    // Expected until the server has bound its port
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(service + " did not answer " + probe + " within " + config.string("timeout") + "s");
+        } finally {
+            execute(Arrays.asList("docker", "rm", "-f", containerId));
+        }
+    }
+
+    private static String execute(List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Command failed: " + String.join(" ", command));
+        }
+        return output;
+    }
+
+    static void write(PrintStream out, Map<String, String> config, Map<String, List<Long>> results) {
+        config.forEach((name, value) -> out.println("config." + name + "=" + value));
+        results.forEach((name, millis) -> {
+            List<Long> sorted = new ArrayList<>(millis);
+            Collections.sort(sorted);
+            out.println("startup." + name + ".ms.min=" + sorted.get(0));
+            out.println("startup." + name + ".ms.median=" + sorted.get(sorted.size() / 2));
+            out.println("startup." + name + ".ms.max=" + sorted.get(sorted.size() - 1));
+            out.println("startup." + name + ".ms.runs=" + sorted.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        });
+    }
+}
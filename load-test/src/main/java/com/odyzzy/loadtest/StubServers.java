@@ -0,0 +1,193 @@
+package com.odyzzy.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odyzzy.api.core.product.Product;
+import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.api.core.review.Review;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory stand-ins for product-service, review-service and recommendation-service. They
+ * answer the same URLs with generated data after a delay drawn from a latency distribution,
+ * so the composite can be loaded without Mongo or MySQL. Like the real services they accept
+ * HTTP/1.1 and h2c on the same port, and they count the TCP connections clients open.
+ */
+class StubServers {
+
+    private static final String SERVICE_ADDRESS = "stub";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final int products;
+    private final int reviewsPerProduct;
+    private final int recommendationsPerProduct;
+    private final List<DisposableServer> servers = new ArrayList<>();
+    private final LongAdder openedConnections = new LongAdder();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+
+    StubServers(int products, int reviewsPerProduct, int recommendationsPerProduct) {
+        this.products = products;
+        this.reviewsPerProduct = reviewsPerProduct;
+        this.recommendationsPerProduct = recommendationsPerProduct;
+    }
+
+    void startProductService(int port, LatencyDistribution latency) {
+        servers.add(server(port)
+                .route(routes -> routes
+                        .get("/products/{productId}", (request, response) -> {
+                            int productId = Integer.parseInt(request.param("productId"));
+                            if (productId < 1 || productId > products) {
+                                return send(response, latency, HttpResponseStatus.NOT_FOUND,
+                                        error(request, "No product found for ProductId: " + productId));
+                            }
+                            return send(response, latency, HttpResponseStatus.OK, product(productId));
+                        })
+                        .get("/products", (request, response) -> send(response, latency, HttpResponseStatus.OK,
+                                productIds(request).stream()
+                                        .filter(productId -> productId >= 1 && productId <= products)
+                                        .map(this::product)
+                                        .collect(Collectors.toList()))))
+                .bindNow());
+    }
+
+    void startReviewService(int port, LatencyDistribution latency) {
+        servers.add(server(port)
+                .route(routes -> routes.get("/reviews", (request, response) ->
+                        send(response, latency, HttpResponseStatus.OK, page(request, reviewsPerProduct, this::reviews))))
+                .bindNow());
+    }
+
+    void startRecommendationService(int port, LatencyDistribution latency) {
+        servers.add(server(port)
+                .route(routes -> routes.get("/recommendations", (request, response) ->
+                        send(response, latency, HttpResponseStatus.OK, page(request, recommendationsPerProduct, this::recommendations))))
+                .bindNow());
+    }
+
+    long openedConnections() {
+        return openedConnections.sum();
+    }
+
+    int peakConnections() {
+        return peakConnections.get();
+    }
+
+    void stop() {
+        servers.forEach(DisposableServer::disposeNow);
+    }
+
+    private HttpServer server(int port) {
+        return HttpServer.create()
+                .port(port)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                // HTTP/2 streams get child channels of their connection, only the connection itself is a socket
+                .doOnChannelInit((observer, channel, remoteAddress) -> {
+                    if (channel instanceof SocketChannel) {
+                        connectionOpened();
+                        channel.closeFuture().addListener(future -> openConnections.decrementAndGet());
+                    }
+                });
+    }
+
+    private void connectionOpened() {
+        openedConnections.increment();
+        peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+    }
+
+    private Product product(int productId) {
+        Product product = new Product(productId, "Product " + productId, productId % 500, SERVICE_ADDRESS);
+        product.setVersion(0);
+        return product;
+    }
+
+    private List<Review> reviews(int productId, int count) {
+        List<Review> reviews = new ArrayList<>(count);
+        for (int reviewId = 1; reviewId <= count; reviewId++) {
+            Review review = new Review(productId, reviewId, "Author " + reviewId, "Subject " + reviewId,
+                    "Content of review " + reviewId, SERVICE_ADDRESS);
+            review.setVersion(0);
+            reviews.add(review);
+        }
+        return reviews;
+    }
+
+    private List<Recommendation> recommendations(int productId, int count) {
+        List<Recommendation> recommendations = new ArrayList<>(count);
+        for (int recommendationId = 1; recommendationId <= count; recommendationId++) {
+            Recommendation recommendation = new Recommendation(productId, recommendationId, "Author " + recommendationId,
+                    recommendationId % 5, "Content of recommendation " + recommendationId, SERVICE_ADDRESS);
+            recommendation.setVersion(0);
+            recommendations.add(recommendation);
+        }
+        return recommendations;
+    }
+
+    private List<?> page(HttpServerRequest request, int perProduct, BiFunction<Integer, Integer, List<?>> factory) {
+        Map<String, List<String>> parameters = new QueryStringDecoder(request.uri()).parameters();
+        if (parameters.containsKey("productIds")) {
+            List<Object> all = new ArrayList<>();
+            productIds(request).forEach(productId -> all.addAll(factory.apply(productId, perProduct)));
+            return all;
+        }
+        int productId = Integer.parseInt(first(parameters, "productId", "0"));
+        int limit = Integer.parseInt(first(parameters, "limit", String.valueOf(perProduct)));
+        return factory.apply(productId, Math.min(limit, perProduct));
+    }
+
+    private List<Integer> productIds(HttpServerRequest request) {
+        String productIds = first(new QueryStringDecoder(request.uri()).parameters(), "productIds", "");
+        return productIds.isEmpty() ? List.of() : Arrays.stream(productIds.split(","))
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> error(HttpServerRequest request, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("path", request.fullPath());
+        error.put("httpStatus", "NOT_FOUND");
+        error.put("message", message);
+        return error;
+    }
+
+    private Publisher<Void> send(HttpServerResponse response, LatencyDistribution latency, HttpResponseStatus status, Object body) {
+        byte[] bytes = toJson(body);
+        return response.status(status)
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .sendByteArray(Mono.delay(latency.sample()).thenReturn(bytes));
+    }
+
+    private byte[] toJson(Object body) {
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String first(Map<String, List<String>> parameters, String name, String defaultValue) {
+        List<String> values = parameters.get(name);
+        return values == null || values.isEmpty() ? defaultValue : values.get(0);
+    }
+}
@@ -0,0 +1,46 @@
+package com.odyzzy.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadGeneratorTests {
+
+    @Test
+    void zipfianFavoursLowIds() {
+        ZipfianGenerator generator = new ZipfianGenerator(1000, 0.99);
+        int[] counts = new int[1001];
+        IntStream.range(0, 100_000).forEach(i -> counts[generator.next()]++);
+
+        assertEquals(0, counts[0]);
+        assertTrue(counts[1] > counts[10]);
+        assertTrue(counts[10] > counts[1000]);
+        assertEquals(100_000, IntStream.of(counts).sum());
+    }
+
+    @Test
+    void zipfianStaysInRange() {
+        ZipfianGenerator generator = new ZipfianGenerator(3, 1.2);
+        IntStream.range(0, 10_000).map(i -> generator.next()).forEach(id -> assertTrue(id >= 1 && id <= 3));
+    }
+
+    @Test
+    void parseLatencyDistributions() {
+        assertEquals(5_000_000, LatencyDistribution.parse("fixed:5").sampleNanos());
+
+        LatencyDistribution uniform = LatencyDistribution.parse("uniform:2-4");
+        IntStream.range(0, 1000).mapToLong(i -> uniform.sampleNanos())
+                .forEach(nanos -> assertTrue(nanos >= 2_000_000 && nanos <= 4_000_000));
+
+        LatencyDistribution logNormal = LatencyDistribution.parse("lognormal:5,50");
+        long[] samples = IntStream.range(0, 100_000).mapToLong(i -> logNormal.sampleNanos()).sorted().toArray();
+        assertEquals(5.0, samples[50_000] / 1e6, 0.5);
+        assertEquals(50.0, samples[99_000] / 1e6, 10.0);
+
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.parse("pareto:1"));
+    }
+}
@@ -1,5 +1,9 @@
 package com.odyzzy.productcompositeservice;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odyzzy.productcompositeservice.services.DownstreamMetrics;
+import com.odyzzy.productcompositeservice.services.TimedJackson2JsonEncoder;
+import com.odyzzy.util.http.CorrelationIdFilter;
 import io.swagger.v3.oas.models.ExternalDocumentation;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Contact;
@@ -8,9 +12,19 @@ import io.swagger.v3.oas.models.info.License;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
 
 @SpringBootApplication
 @ComponentScan("com.odyzzy")
@@ -45,8 +59,41 @@ public class ProductCompositeServiceApplication {
 	}
 
 	@Bean
-	RestTemplate restTemplate() {
-		return new RestTemplate();
+	WebClient webClient(
+			WebClient.Builder builder,
+			@Value("${app.product-composite.wire-format:application/x-jackson-smile}") MediaType wireFormat,
+			@Value("${app.product-composite.http-client.protocol:http11}") HttpProtocol protocol,
+			@Value("${app.product-composite.http-client.max-connections:500}") int maxConnections,
+			@Value("${app.product-composite.http-client.h2c-connections:2}") int h2cConnections,
+			@Value("${app.product-composite.http-client.h2c-pending-acquire-max-count:1000}") int h2cPendingAcquireMaxCount,
+			@Value("${app.product-composite.http-client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout) {
+		// metrics(true) publishes reactor.netty.connection.provider.* gauges for the pool
+		ConnectionProvider.Builder connectionProvider = ConnectionProvider.builder("core-services")
+				.metrics(true)
+				.pendingAcquireTimeout(pendingAcquireTimeout);
+		if (protocol == HttpProtocol.H2C) {
+			// Every connection multiplexes concurrent requests as streams, so a few per core service are enough.
+			// The bulkheads bound most of the requests waiting for a stream. Writes and batch reads bypass them,
+			// so the pool keeps a finite queue of its own. The queue is sized well above the bulkhead limits.
+			connectionProvider.maxConnections(h2cConnections).pendingAcquireMaxCount(h2cPendingAcquireMaxCount);
+		} else {
+			connectionProvider.maxConnections(maxConnections);
+		}
+		HttpClient httpClient = HttpClient.create(connectionProvider.build()).protocol(protocol);
+		// Core services answer in the preferred wire format, JSON stays acceptable as a fallback
+		return builder
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.filter(CorrelationIdFilter.propagation())
+				.filter(DownstreamMetrics.statusRecording())
+				.defaultHeaders(headers -> headers.setAccept(Arrays.asList(wireFormat, MediaType.APPLICATION_JSON)))
+				.build();
+	}
+
+	// Ordered after Boot's own Jackson codec customizer so that this encoder wins
+	@Bean
+	@Order(1)
+	CodecCustomizer timedJsonEncoderCustomizer(ObjectMapper objectMapper) {
+		return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new TimedJackson2JsonEncoder(objectMapper));
 	}
 
 	@Bean
@@ -0,0 +1,68 @@
+package com.odyzzy.productcompositeservice.services;
+
+import java.time.Duration;
+
+/**
+ * AIMD limit on concurrent requests. Every request that completes within the latency threshold
+ * raises the limit by 1/limit, about one per round of requests at the current limit. A slower
+ * or failed request multiplies it by the backoff ratio, so the limit follows what the core
+ * services can currently absorb instead of letting queues grow.
+ */
+class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    synchronized void onSuccess(long latencyNanos) {
+        inFlight--;
+        if (latencyNanos > latencyThresholdNanos) {
+            backoff();
+        } else if (inFlight * 2 >= limit) {
+            // Only grow while the limit is actually used, an idle service would otherwise drift to the maximum
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    synchronized void onDropped() {
+        inFlight--;
+        backoff();
+    }
+
+    // Cancelled by the client, says nothing about the core services
+    synchronized void onIgnored() {
+        inFlight--;
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    private void backoff() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+}
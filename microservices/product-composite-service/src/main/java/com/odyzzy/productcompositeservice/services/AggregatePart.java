@@ -0,0 +1,44 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.odyzzy.api.exceptions.InvalidInputException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The parts of a ProductAggregate that can be selected with include=, each backed by one core service call.
+ */
+enum AggregatePart {
+    PRODUCT,
+    REVIEWS,
+    RECOMMENDATIONS,
+    STATS;
+
+    // Returned without include=, the rating stats cost an extra call and are only returned on request
+    static final Set<AggregatePart> DEFAULT = Collections.unmodifiableSet(EnumSet.of(PRODUCT, REVIEWS, RECOMMENDATIONS));
+
+    static Set<AggregatePart> parse(List<String> include) {
+        if (include == null || include.isEmpty()) {
+            return DEFAULT;
+        }
+        EnumSet<AggregatePart> parts = EnumSet.noneOf(AggregatePart.class);
+        for (String value : include) {
+            try {
+                parts.add(valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidInputException("Invalid include: " + value + ", expected any of " + names());
+            }
+        }
+        return parts;
+    }
+
+    private static String names() {
+        return EnumSet.allOf(AggregatePart.class).stream()
+                .map(part -> part.name().toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(","));
+    }
+}
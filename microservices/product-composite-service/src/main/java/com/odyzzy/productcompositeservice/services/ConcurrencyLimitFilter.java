@@ -0,0 +1,97 @@
+package com.odyzzy.productcompositeservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+
+/**
+ * Sheds getProduct requests above the adaptive concurrency limit with 503 and Retry-After instead
+ * of queuing them behind slow core services.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ConcurrencyLimitFilter implements WebFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    // Numeric ids only, /product-composite/stream is not limited here
+    private static final PathPattern GET_PRODUCT = PathPatternParser.defaultInstance.parse("/product-composite/{productId:-?\\d+}");
+
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+    private final AdaptiveConcurrencyLimit limit;
+    private final Counter shed;
+
+    public ConcurrencyLimitFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.product-composite.concurrency-limit.enabled:true}") boolean enabled,
+            @Value("${app.product-composite.concurrency-limit.initial:50}") int initialLimit,
+            @Value("${app.product-composite.concurrency-limit.min:5}") int minLimit,
+            @Value("${app.product-composite.concurrency-limit.max:500}") int maxLimit,
+            @Value("${app.product-composite.concurrency-limit.latency-threshold:500ms}") Duration latencyThreshold,
+            @Value("${app.product-composite.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${app.product-composite.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.getSeconds()));
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyThreshold, backoffRatio);
+        this.shed = Counter.builder("composite.concurrency.shed")
+                .description("getProduct requests rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("composite.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .description("Current adaptive concurrency limit for getProduct")
+                .register(meterRegistry);
+        Gauge.builder("composite.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .description("getProduct requests currently being processed")
+                .register(meterRegistry);
+        LOGGER.info("Concurrency limit enabled: {}, initial: {}, min: {}, max: {}, latency threshold: {}",
+                enabled, initialLimit, minLimit, maxLimit, latencyThreshold);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!enabled || request.getMethod() != HttpMethod.GET || !GET_PRODUCT.matches(request.getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        if (!limit.tryAcquire()) {
+            shed.increment();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return response.setComplete();
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatus status = response.getStatusCode();
+            if (signal == SignalType.CANCEL) {
+                limit.onIgnored();
+            } else if (signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError())) {
+                limit.onDropped();
+            } else {
+                limit.onSuccess(System.nanoTime() - start);
+            }
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.odyzzy.api.exceptions.InvalidInputException;
+import com.odyzzy.api.exceptions.NotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times a downstream call including timeout, bulkhead and circuit breaker, tagged with the
+ * target service, the outcome and the HTTP status of the last response seen. The status is
+ * "none" when no response arrived, e.g. on timeouts or an open circuit. The status is picked up by
+ * {@link #statusRecording()}, which has to be registered on the WebClient.
+ */
+public class DownstreamMetrics {
+
+    private static final String STATUS_CONTEXT_KEY = DownstreamMetrics.class.getName() + ".STATUS";
+
+    private final MeterRegistry meterRegistry;
+    // One timer per service, outcome and status, built once instead of on every call
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    DownstreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records the status of every response, whether the body is read with retrieve() or exchange.
+     */
+    public static ExchangeFilterFunction statusRecording() {
+        return (request, next) -> Mono.deferContextual(context -> next.exchange(request)
+                .doOnNext(response -> recordStatus(context, response.rawStatusCode())));
+    }
+
+    static void recordStatus(ContextView context, int status) {
+        context.<AtomicInteger>getOrEmpty(STATUS_CONTEXT_KEY).ifPresent(holder -> holder.set(status));
+    }
+
+    /**
+     * @param hasFallback whether the caller replaces errors with a fallback, errors are then tagged
+     *                    with outcome "fallback"
+     */
+    <T> Mono<T> time(String service, boolean hasFallback, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicInteger status = new AtomicInteger();
+            return call
+                    .doOnSuccess(result -> sample.stop(timer(service, "success", status)))
+                    .doOnError(ex -> sample.stop(timer(service, hasFallback ? "fallback" : outcome(ex), status)))
+                    .contextWrite(context -> context.put(STATUS_CONTEXT_KEY, status));
+        });
+    }
+
+    private Timer timer(String service, String outcome, AtomicInteger status) {
+        String statusTag = status.get() == 0 ? "none" : String.valueOf(status.get());
+        return timers.computeIfAbsent(service + ' ' + outcome + ' ' + statusTag, key -> Timer.builder("composite.downstream.requests")
+                .description("Calls from the composite to a core service")
+                .tag("service", service)
+                .tag("outcome", outcome)
+                .tag("status", statusTag)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry));
+    }
+
+    private static String outcome(Throwable ex) {
+        if (ex instanceof NotFoundException) {
+            return "not_found";
+        }
+        if (ex instanceof InvalidInputException) {
+            return "invalid_input";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,41 @@
+package com.odyzzy.productcompositeservice.services;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Invalidation counters per product id. A load remembers the generation of its product before it starts and
+ * may only fill a cache if that generation is unchanged, so a write to one product does not discard the loads
+ * of the others. The counters are striped to keep the memory fixed, a collision only discards a load too many.
+ */
+class Generations {
+
+    private static final int STRIPES = 1024;
+
+    private final AtomicLongArray counters = new AtomicLongArray(STRIPES);
+
+    long get(int productId) {
+        return counters.get(stripe(productId));
+    }
+
+    Map<Integer, Long> get(Collection<Integer> productIds) {
+        return productIds.stream().distinct().collect(Collectors.toMap(Function.identity(), this::get));
+    }
+
+    void increment(int productId) {
+        counters.incrementAndGet(stripe(productId));
+    }
+
+    void incrementAll() {
+        for (int i = 0; i < STRIPES; i++) {
+            counters.incrementAndGet(i);
+        }
+    }
+
+    private static int stripe(int productId) {
+        return Math.floorMod(productId, STRIPES);
+    }
+}
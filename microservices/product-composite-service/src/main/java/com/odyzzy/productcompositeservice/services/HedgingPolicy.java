@@ -0,0 +1,91 @@
+package com.odyzzy.productcompositeservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+class HedgingPolicy {
+
+    private static final long DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final Duration minDelay;
+    private final Timer latency;
+    private final Counter hedged;
+    private final Counter wins;
+
+    private volatile Duration delay;
+    private volatile long delayComputedAt;
+
+    HedgingPolicy(String dependency, boolean enabled, double percentile, Duration minDelay, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minDelay = minDelay;
+        this.delay = minDelay;
+        this.delayComputedAt = System.nanoTime();
+        this.latency = Timer.builder("composite.hedge.latency")
+                .description("Latency of single attempts, used to derive the hedge delay")
+                .tag("dependency", dependency)
+                .publishPercentiles(percentile)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.hedged = Counter.builder("composite.hedge.requests")
+                .description("Second attempts fired because the first one was slower than the hedge delay")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+        this.wins = Counter.builder("composite.hedge.wins")
+                .description("Second attempts that answered before the first one")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+        Gauge.builder("composite.hedge.win.ratio", this, HedgingPolicy::winRatio)
+                .description("Share of hedged requests won by the second attempt")
+                .tag("dependency", dependency)
+                .register(meterRegistry);
+    }
+
+    <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        return Mono.defer(() -> {
+            Mono<T> primary = timed(call);
+            Mono<T> secondary = Mono.delay(currentDelay())
+                    .doOnNext(tick -> hedged.increment())
+                    .then(timed(call))
+                    .doOnNext(result -> wins.increment());
+            // The first attempt to signal wins, so a fast failure is not turned into a delayed retry
+            return Mono.firstWithSignal(primary, secondary);
+        });
+    }
+
+    private <T> Mono<T> timed(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // A losing attempt is cancelled; recording its elapsed time as well keeps slow attempts from
+            // dropping out of the percentile, which would otherwise pull the hedge delay down
+            return call.get().doFinally(signal -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Duration currentDelay() {
+        long now = System.nanoTime();
+        if (now - delayComputedAt > DELAY_REFRESH_NANOS) {
+            delayComputedAt = now;
+            ValueAtPercentile[] percentiles = latency.takeSnapshot().percentileValues();
+            long observed = percentiles.length == 0 ? 0 : (long) percentiles[0].value(TimeUnit.NANOSECONDS);
+            delay = observed > minDelay.toNanos() ? Duration.ofNanos(observed) : minDelay;
+        }
+        return delay;
+    }
+
+    private double winRatio() {
+        double fired = hedged.count();
+        return fired == 0 ? 0.0 : wins.count() / fired;
+    }
+}
@@ -0,0 +1,87 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.odyzzy.api.exceptions.NotFoundException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+public class NotFoundCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotFoundCache.class);
+
+    private final boolean enabled;
+    private final Cache<Integer, String> cache;
+
+    // Bumped on every invalidation so that a 404 observed before a create never hides the new product
+    private final Generations generations = new Generations();
+
+    public NotFoundCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.product-composite.not-found-cache.enabled:true}") boolean enabled,
+            @Value("${app.product-composite.not-found-cache.max-size:100000}") long maxSize,
+            @Value("${app.product-composite.not-found-cache.ttl:10s}") Duration ttl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notFoundProducts");
+        Gauge.builder("composite.not-found-cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of product lookups answered from the not found cache")
+                .register(meterRegistry);
+        LOGGER.info("Created not found cache, enabled: {}, max size: {}, ttl: {}", enabled, maxSize, ttl);
+    }
+
+    public <T> Mono<T> get(int productId, Supplier<Mono<T>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            String message = cache.getIfPresent(productId);
+            if (message != null) {
+                return Mono.error(new NotFoundException(message));
+            }
+            long generation = generations.get(productId);
+            return loader.get().doOnError(NotFoundException.class, ex -> put(generation, productId, ex.getMessage()));
+        });
+    }
+
+    public boolean contains(int productId) {
+        return enabled && cache.getIfPresent(productId) != null;
+    }
+
+    public Map<Integer, Long> generations(Collection<Integer> productIds) {
+        return generations.get(productIds);
+    }
+
+    public void put(long generation, int productId, String message) {
+        if (enabled && generation == generations.get(productId)) {
+            cache.put(productId, message);
+        }
+    }
+
+    public void invalidate(int productId) {
+        generations.increment(productId);
+        cache.invalidate(productId);
+    }
+
+    public void invalidateAll() {
+        generations.incrementAll();
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,99 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.odyzzy.api.composite.product.ProductAggregate;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+public class ProductAggregateCache {
+
+    public enum ExpiryPolicy {
+        AFTER_WRITE,
+        AFTER_ACCESS
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProductAggregateCache.class);
+
+    private final boolean enabled;
+    private final Cache<Integer, ProductAggregate> cache;
+
+    // Bumped on every invalidation so that loads started before a write never re-populate stale data
+    private final Generations generations = new Generations();
+
+    public ProductAggregateCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.product-composite.cache.enabled:true}") boolean enabled,
+            @Value("${app.product-composite.cache.max-size:10000}") long maxSize,
+            @Value("${app.product-composite.cache.ttl:30s}") Duration ttl,
+            @Value("${app.product-composite.cache.expiry-policy:after-write}") ExpiryPolicy expiryPolicy) {
+        this.enabled = enabled;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats();
+        if (expiryPolicy == ExpiryPolicy.AFTER_ACCESS) {
+            builder.expireAfterAccess(ttl);
+        } else {
+            builder.expireAfterWrite(ttl);
+        }
+        this.cache = builder.build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "productAggregates");
+        LOGGER.info("Created product aggregate cache, enabled: {}, max size: {}, ttl: {}, expiry policy: {}", enabled, maxSize, ttl, expiryPolicy);
+    }
+
+    public Mono<ProductAggregate> get(int productId, Supplier<Mono<ProductAggregate>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return Mono.defer(() -> {
+            ProductAggregate cached = cache.getIfPresent(productId);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long generation = generations.get(productId);
+            return loader.get().doOnNext(aggregate -> put(generation, aggregate));
+        });
+    }
+
+    public ProductAggregate getIfPresent(int productId) {
+        return enabled ? cache.getIfPresent(productId) : null;
+    }
+
+    public Map<Integer, ProductAggregate> getAllPresent(Collection<Integer> productIds) {
+        return enabled ? cache.getAllPresent(productIds) : Collections.emptyMap();
+    }
+
+    public Map<Integer, Long> generations(Collection<Integer> productIds) {
+        return generations.get(productIds);
+    }
+
+    public void put(long generation, ProductAggregate aggregate) {
+        if (enabled && generation == generations.get(aggregate.getProductId())) {
+            cache.put(aggregate.getProductId(), aggregate);
+        }
+    }
+
+    public void invalidate(int productId) {
+        generations.increment(productId);
+        cache.invalidate(productId);
+    }
+
+    public void invalidateAll() {
+        generations.incrementAll();
+        cache.invalidateAll();
+    }
+}
@@ -4,38 +4,82 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odyzzy.api.core.product.Product;
 import com.odyzzy.api.core.product.ProductService;
 import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.api.core.recommendation.RecommendationBulkResult;
 import com.odyzzy.api.core.recommendation.RecommendationService;
+import com.odyzzy.api.core.recommendation.RecommendationStats;
 import com.odyzzy.api.core.review.Review;
+import com.odyzzy.api.core.review.ReviewBulkResult;
 import com.odyzzy.api.core.review.ReviewService;
 import com.odyzzy.api.exceptions.InvalidInputException;
 import com.odyzzy.api.exceptions.NotFoundException;
 import com.odyzzy.util.http.HttpErrorInfo;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 public class ProductCompositeIntegration implements ProductService, ReviewService, RecommendationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProductCompositeIntegration.class);
-    private final RestTemplate restTemplate;
+    private static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.smile().build();
+    private final MediaType wireFormat;
+    private final ProductAggregateCache productAggregateCache;
+    private final NotFoundCache notFoundCache;
+    private final RevalidationCache revalidationCache;
     private final String productServiceUrl;
     private final String reviewServiceUrl;
     private final String recommendationServiceUrl;
+    private final RequestCoalescer<Product> productCalls;
+    private final RequestCoalescer<List<Review>> reviewCalls;
+    private final RequestCoalescer<List<Recommendation>> recommendationCalls;
+    private final Duration productServiceTimeout;
+    private final Duration reviewServiceTimeout;
+    private final Duration recommendationServiceTimeout;
+    private final HedgingPolicy reviewHedging;
+    private final DownstreamMetrics downstreamMetrics;
+    private final HedgingPolicy recommendationHedging;
+    private final CircuitBreaker productCircuitBreaker;
+    private final CircuitBreaker reviewCircuitBreaker;
+    private final CircuitBreaker recommendationCircuitBreaker;
+    private final Bulkhead productBulkhead;
+    private final Bulkhead reviewBulkhead;
+    private final Bulkhead recommendationBulkhead;
 
     public ProductCompositeIntegration(
-            RestTemplate restTemplate,
+            WebClient webClient,
             ObjectMapper objectMapper,
+            ProductAggregateCache productAggregateCache,
+            NotFoundCache notFoundCache,
+            RevalidationCache revalidationCache,
+            MeterRegistry meterRegistry,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
             @Value("${app.product-service.host}")
             String productServiceHost,
             @Value("${app.product-service.port}")
@@ -47,67 +91,314 @@ public class ProductCompositeIntegration implements ProductService, ReviewServic
             @Value("${app.recommendation-service.host}")
             String recommendationServiceHost,
             @Value("${app.recommendation-service.port}")
-            int recommendationServicePort) {
-        this.restTemplate = restTemplate;
+            int recommendationServicePort,
+            @Value("${app.product-service.timeout:2s}")
+            Duration productServiceTimeout,
+            @Value("${app.review-service.timeout:1s}")
+            Duration reviewServiceTimeout,
+            @Value("${app.recommendation-service.timeout:1s}")
+            Duration recommendationServiceTimeout,
+            @Value("${app.review-service.hedge-enabled:false}")
+            boolean reviewHedgeEnabled,
+            @Value("${app.recommendation-service.hedge-enabled:false}")
+            boolean recommendationHedgeEnabled,
+            @Value("${app.hedge.percentile:0.95}")
+            double hedgePercentile,
+            @Value("${app.hedge.min-delay:50ms}")
+            Duration hedgeMinDelay,
+            @Value("${app.product-composite.wire-format:application/x-jackson-smile}")
+            MediaType wireFormat) {
+        this.webClient = webClient;
         this.objectMapper = objectMapper;
+        this.wireFormat = wireFormat;
+        this.productAggregateCache = productAggregateCache;
+        this.notFoundCache = notFoundCache;
+        this.revalidationCache = revalidationCache;
+
+        this.productServiceUrl = "http://" + productServiceHost + ":" + productServicePort + "/products";
+        this.reviewServiceUrl = "http://" + reviewServiceHost + ":" + reviewServicePort + "/reviews";
+        this.recommendationServiceUrl = "http://" + recommendationServiceHost + ":" + recommendationServicePort + "/recommendations";
+
+        this.productCalls = new RequestCoalescer<>("product", meterRegistry);
+        this.reviewCalls = new RequestCoalescer<>("reviews", meterRegistry);
+        this.recommendationCalls = new RequestCoalescer<>("recommendations", meterRegistry);
+
+        this.productServiceTimeout = productServiceTimeout;
+        this.reviewServiceTimeout = reviewServiceTimeout;
+        this.recommendationServiceTimeout = recommendationServiceTimeout;
+        this.reviewHedging = new HedgingPolicy("review-service", reviewHedgeEnabled, hedgePercentile, hedgeMinDelay, meterRegistry);
+        this.downstreamMetrics = new DownstreamMetrics(meterRegistry);
+        this.recommendationHedging = new HedgingPolicy("recommendation-service", recommendationHedgeEnabled, hedgePercentile, hedgeMinDelay, meterRegistry);
 
-        this.productServiceUrl = "http://" + productServiceHost + ":" + productServicePort + "/products/";
-        this.reviewServiceUrl = "http://" + reviewServiceHost + ":" + reviewServicePort + "/reviews?productId=";
-        this.recommendationServiceUrl = "http://" + recommendationServiceHost + ":" + recommendationServicePort + "/recommendations?productId=";
+        this.productCircuitBreaker = observe(circuitBreakerRegistry.circuitBreaker("product-service"), meterRegistry);
+        this.reviewCircuitBreaker = observe(circuitBreakerRegistry.circuitBreaker("review-service"), meterRegistry);
+        this.recommendationCircuitBreaker = observe(circuitBreakerRegistry.circuitBreaker("recommendation-service"), meterRegistry);
+        this.productBulkhead = observe(bulkheadRegistry.bulkhead("product-service"), meterRegistry);
+        this.reviewBulkhead = observe(bulkheadRegistry.bulkhead("review-service"), meterRegistry);
+        this.recommendationBulkhead = observe(bulkheadRegistry.bulkhead("recommendation-service"), meterRegistry);
     }
 
     @Override
-    public Product getProduct(int productId) {
-        try {
-            String url = this.productServiceUrl + productId;
-            Product product = restTemplate.getForObject(url, Product.class);
-            return product;
-        } catch (HttpClientErrorException ex) {
-            switch (ex.getStatusCode()) {
-                case NOT_FOUND:
-                    throw new NotFoundException(getErrorMessage(ex));
-                case UNPROCESSABLE_ENTITY:
-                    throw new InvalidInputException(getErrorMessage(ex));
-                default:
-                    LOGGER.warn("Got an unexpected HTTP error: {}, will rethrow it", ex.getStatusCode());
-                    LOGGER.warn("Error body: {}", ex.getResponseBodyAsString());
-                    throw ex;
-            }
+    public Mono<Product> getProduct(int productId) {
+        String url = this.productServiceUrl + "/" + productId;
+        return productCalls.execute(productId, () -> downstreamMetrics.time("product-service", false,
+                revalidationCache.get(url, response -> response.bodyToMono(Product.class))
+                        .timeout(productServiceTimeout)
+                        .onErrorMap(WebClientResponseException.class, this::handleException)
+                        .transformDeferred(BulkheadOperator.of(productBulkhead))
+                        .transformDeferred(CircuitBreakerOperator.of(productCircuitBreaker))));
+    }
+
+    @Override
+    public Flux<Product> getProducts(List<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return Flux.empty();
         }
+        String url = this.productServiceUrl + "?productIds=" + joinIds(productIds);
+        return downstreamMetrics.time("product-service", false, webClient.get().uri(url)
+                        .retrieve()
+                        .bodyToFlux(Product.class)
+                        .collectList()
+                        .timeout(productServiceTimeout)
+                        .onErrorMap(WebClientResponseException.class, this::handleException)
+                        .transformDeferred(BulkheadOperator.of(productBulkhead))
+                        .transformDeferred(CircuitBreakerOperator.of(productCircuitBreaker)))
+                .flatMapMany(Flux::fromIterable);
     }
 
     @Override
-    public List<Recommendation> getRecommendations(int productId) {
-        try {
-            String url = this.recommendationServiceUrl + productId;
-            List<Recommendation> recommendations = this.restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    new ParameterizedTypeReference<List<Recommendation>>() {
-                    }).getBody();
-            return recommendations;
-        } catch (Exception ex) {
-            LOGGER.warn("Got an exception while requesting recommendations, return zero recommendations: {}", ex.getMessage());
-            return Collections.emptyList();
+    public Mono<Product> createProduct(Product product) {
+        return webClient.post().uri(this.productServiceUrl)
+                .contentType(wireFormat)
+                .bodyValue(product)
+                .retrieve()
+                .bodyToMono(Product.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException)
+                .doFinally(signal -> {
+                    productAggregateCache.invalidate(product.getProductId());
+                    notFoundCache.invalidate(product.getProductId());
+                });
+    }
+
+    @Override
+    public Mono<Void> deleteProduct(int productId) {
+        String url = this.productServiceUrl + "/" + productId;
+        return webClient.delete().uri(url)
+                .retrieve()
+                .bodyToMono(Void.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException)
+                .doFinally(signal -> productAggregateCache.invalidate(productId));
+    }
+
+    @Override
+    public Flux<Recommendation> getRecommendations(int productId, Integer limit, Integer after) {
+        String url = this.recommendationServiceUrl + "?productId=" + productId + pageParams(limit, after);
+        return getRecommendations(Arrays.asList(productId, limit, after), url);
+    }
+
+    @Override
+    public Flux<Recommendation> getTopRecommendations(int productId, int top) {
+        String url = this.recommendationServiceUrl + "?productId=" + productId + "&top=" + top;
+        return getRecommendations(Arrays.asList(productId, "top", top), url);
+    }
+
+    private Flux<Recommendation> getRecommendations(List<Object> key, String url) {
+        return recommendationCalls.execute(key, () -> downstreamMetrics.time("recommendation-service", true,
+                        recommendationHedging.execute(() -> revalidationCache.get(url, response -> response.bodyToFlux(Recommendation.class).collectList()))
+                                .timeout(recommendationServiceTimeout)
+                                .transformDeferred(BulkheadOperator.of(recommendationBulkhead))
+                                .transformDeferred(CircuitBreakerOperator.of(recommendationCircuitBreaker)))
+                        .onErrorResume(ex -> {
+                            LOGGER.warn("Got an exception while requesting recommendations, return zero recommendations: {}", ex.getMessage());
+                            return Mono.just(Collections.emptyList());
+                        }))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Flux<Recommendation> getRecommendationsForProducts(List<Integer> productIds, Integer limit, Integer top) {
+        if (productIds.isEmpty()) {
+            return Flux.empty();
         }
+        String url = this.recommendationServiceUrl + "?productIds=" + joinIds(productIds)
+                + (limit == null ? "" : "&limit=" + limit) + (top == null ? "" : "&top=" + top);
+        return downstreamMetrics.time("recommendation-service", true, webClient.get().uri(url)
+                        .retrieve()
+                        .bodyToFlux(Recommendation.class)
+                        .collectList()
+                        .timeout(recommendationServiceTimeout)
+                        .transformDeferred(BulkheadOperator.of(recommendationBulkhead))
+                        .transformDeferred(CircuitBreakerOperator.of(recommendationCircuitBreaker)))
+                .onErrorResume(ex -> {
+                    LOGGER.warn("Got an exception while requesting recommendations for {} products, return zero recommendations: {}", productIds.size(), ex.getMessage());
+                    return Mono.just(Collections.emptyList());
+                })
+                .flatMapMany(Flux::fromIterable);
     }
 
     @Override
-    public List<Review> getReviews(int productId) {
-        try {
-            String url = this.reviewServiceUrl + productId;
-            List<Review> reviews = this.restTemplate.exchange(url, HttpMethod.GET, null, new ParameterizedTypeReference<List<Review>>() {
-            }).getBody();
-            return reviews;
-        } catch (Exception ex) {
-            LOGGER.warn("Got an exception while requesting reviews, return zero reviews: {}", ex.getMessage());
-            return Collections.emptyList();
+    public Mono<RecommendationStats> getRecommendationStats(int productId) {
+        String url = this.recommendationServiceUrl + "/stats?productId=" + productId;
+        return downstreamMetrics.time("recommendation-service", true, webClient.get().uri(url)
+                        .retrieve()
+                        .bodyToMono(RecommendationStats.class)
+                        .timeout(recommendationServiceTimeout)
+                        .transformDeferred(BulkheadOperator.of(recommendationBulkhead))
+                        .transformDeferred(CircuitBreakerOperator.of(recommendationCircuitBreaker)))
+                .onErrorResume(ex -> {
+                    LOGGER.warn("Got an exception while requesting recommendation stats, return no stats: {}", ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<Recommendation> createRecommendation(Recommendation recommendation) {
+        return webClient.post().uri(this.recommendationServiceUrl)
+                .contentType(wireFormat)
+                .bodyValue(recommendation)
+                .retrieve()
+                .bodyToMono(Recommendation.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException)
+                .doFinally(signal -> productAggregateCache.invalidate(recommendation.getProductId()));
+    }
+
+    @Override
+    public Mono<RecommendationBulkResult> createRecommendations(Flux<Recommendation> recommendations) {
+        return webClient.post().uri(this.recommendationServiceUrl + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(recommendations, Recommendation.class)
+                .retrieve()
+                .bodyToMono(RecommendationBulkResult.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException)
+                // A bulk load may touch any product
+                .doFinally(signal -> productAggregateCache.invalidateAll());
+    }
+
+    @Override
+    public Mono<Void> deleteRecommendation(int productId) {
+        String url = this.recommendationServiceUrl + "?productId=" + productId;
+        return webClient.delete().uri(url)
+                .retrieve()
+                .bodyToMono(Void.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException)
+                .doFinally(signal -> productAggregateCache.invalidate(productId));
+    }
+
+    @Override
+    public Flux<Review> getReviews(int productId, Integer limit, Integer after) {
+        String url = this.reviewServiceUrl + "?productId=" + productId + pageParams(limit, after);
+        return reviewCalls.execute(Arrays.asList(productId, limit, after), () -> downstreamMetrics.time("review-service", true,
+                        reviewHedging.execute(() -> revalidationCache.get(url, response -> response.bodyToFlux(Review.class).collectList()))
+                                .timeout(reviewServiceTimeout)
+                                .transformDeferred(BulkheadOperator.of(reviewBulkhead))
+                                .transformDeferred(CircuitBreakerOperator.of(reviewCircuitBreaker)))
+                        .onErrorResume(ex -> {
+                            LOGGER.warn("Got an exception while requesting reviews, return zero reviews: {}", ex.getMessage());
+                            return Mono.just(Collections.emptyList());
+                        }))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Flux<Review> getReviewsForProducts(List<Integer> productIds, Integer limit) {
+        if (productIds.isEmpty()) {
+            return Flux.empty();
+        }
+        String url = this.reviewServiceUrl + "?productIds=" + joinIds(productIds) + pageParams(limit, null);
+        return downstreamMetrics.time("review-service", true, webClient.get().uri(url)
+                        .retrieve()
+                        .bodyToFlux(Review.class)
+                        .collectList()
+                        .timeout(reviewServiceTimeout)
+                        .transformDeferred(BulkheadOperator.of(reviewBulkhead))
+                        .transformDeferred(CircuitBreakerOperator.of(reviewCircuitBreaker)))
+                .onErrorResume(ex -> {
+                    LOGGER.warn("Got an exception while requesting reviews for {} products, return zero reviews: {}", productIds.size(), ex.getMessage());
+                    return Mono.just(Collections.emptyList());
+                })
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Mono<Review> createReview(Review review) {
+        return webClient.post().uri(this.reviewServiceUrl)
+                .contentType(wireFormat)
+                .bodyValue(review)
+                .retrieve()
+                .bodyToMono(Review.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException)
+                .doFinally(signal -> productAggregateCache.invalidate(review.getProductId()));
+    }
+
+    @Override
+    public Mono<ReviewBulkResult> createReviews(Flux<Review> reviews) {
+        return webClient.post().uri(this.reviewServiceUrl + "/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(reviews, Review.class)
+                .retrieve()
+                .bodyToMono(ReviewBulkResult.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException)
+                // A bulk load may touch any product
+                .doFinally(signal -> productAggregateCache.invalidateAll());
+    }
+
+    @Override
+    public Mono<Void> deleteReview(int productId) {
+        String url = this.reviewServiceUrl + "?productId=" + productId;
+        return webClient.delete().uri(url)
+                .retrieve()
+                .bodyToMono(Void.class)
+                .onErrorMap(WebClientResponseException.class, this::handleException)
+                .doFinally(signal -> productAggregateCache.invalidate(productId));
+    }
+
+    private CircuitBreaker observe(CircuitBreaker circuitBreaker, MeterRegistry meterRegistry) {
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            LOGGER.warn("Circuit breaker {} changed state: {}", event.getCircuitBreakerName(), event.getStateTransition());
+            meterRegistry.counter("composite.circuitbreaker.transitions",
+                    "name", event.getCircuitBreakerName(),
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment();
+        });
+        return circuitBreaker;
+    }
+
+    private Bulkhead observe(Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("composite.bulkhead.rejected")
+                .description("Calls rejected because the bulkhead was full")
+                .tag("name", bulkhead.getName())
+                .register(meterRegistry);
+        bulkhead.getEventPublisher().onCallRejected(event -> rejected.increment());
+        return bulkhead;
+    }
+
+    private String pageParams(Integer limit, Integer after) {
+        return (limit == null ? "" : "&limit=" + limit) + (after == null ? "" : "&after=" + after);
+    }
+
+    private String joinIds(List<Integer> productIds) {
+        return productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private Throwable handleException(WebClientResponseException ex) {
+        switch (ex.getStatusCode()) {
+            case NOT_FOUND:
+                return new NotFoundException(getErrorMessage(ex));
+            case UNPROCESSABLE_ENTITY:
+                return new InvalidInputException(getErrorMessage(ex));
+            default:
+                LOGGER.warn("Got an unexpected HTTP error: {}, will rethrow it", ex.getStatusCode());
+                LOGGER.warn("Error body: {}", ex.getResponseBodyAsString());
+                return ex;
         }
     }
 
-    private String getErrorMessage(HttpClientErrorException ex) {
+    private String getErrorMessage(WebClientResponseException ex) {
         try {
+            MediaType contentType = ex.getHeaders().getContentType();
+            if (contentType != null && contentType.isCompatibleWith(APPLICATION_SMILE)) {
+                return smileMapper.readValue(ex.getResponseBodyAsByteArray(), HttpErrorInfo.class).getMessage();
+            }
             return objectMapper.readValue(ex.getResponseBodyAsString(), HttpErrorInfo.class).getMessage();
         } catch (IOException e) {
             return e.getMessage();
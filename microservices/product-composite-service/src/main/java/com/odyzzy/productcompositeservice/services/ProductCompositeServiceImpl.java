@@ -3,12 +3,25 @@ package com.odyzzy.productcompositeservice.services;
 import com.odyzzy.api.composite.product.*;
 import com.odyzzy.api.core.product.Product;
 import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.api.core.recommendation.RecommendationStats;
 import com.odyzzy.api.core.review.Review;
+import com.odyzzy.api.exceptions.InvalidInputException;
 import com.odyzzy.api.exceptions.NotFoundException;
+import com.odyzzy.util.http.EntityTags;
 import com.odyzzy.util.http.ServiceUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
@@ -16,48 +29,302 @@ public class ProductCompositeServiceImpl implements ProductCompositeService {
 
     private final ServiceUtil serviceUtil;
     private ProductCompositeIntegration productCompositeIntegration;
+    private final ProductAggregateCache productAggregateCache;
+    private final NotFoundCache notFoundCache;
+    private final int maxBatchSize;
+    private final int reviewsPageSize;
+    private final int recommendationsPageSize;
+    private final int topRecommendations;
+    private final int streamConcurrency;
+    private final int streamMaxProducts;
 
-    public ProductCompositeServiceImpl(ServiceUtil serviceUtil, ProductCompositeIntegration productCompositeIntegration) {
+    public ProductCompositeServiceImpl(
+            ServiceUtil serviceUtil,
+            ProductCompositeIntegration productCompositeIntegration,
+            ProductAggregateCache productAggregateCache,
+            NotFoundCache notFoundCache,
+            @Value("${app.product-composite.max-batch-size:100}") int maxBatchSize,
+            @Value("${app.product-composite.reviews-page-size:20}") int reviewsPageSize,
+            @Value("${app.product-composite.recommendations-page-size:20}") int recommendationsPageSize,
+            @Value("${app.product-composite.top-recommendations:0}") int topRecommendations,
+            @Value("${app.product-composite.stream.concurrency:8}") int streamConcurrency,
+            @Value("${app.product-composite.stream.max-products:100000}") int streamMaxProducts) {
         this.serviceUtil = serviceUtil;
         this.productCompositeIntegration = productCompositeIntegration;
+        this.productAggregateCache = productAggregateCache;
+        this.notFoundCache = notFoundCache;
+        this.maxBatchSize = maxBatchSize;
+        this.reviewsPageSize = reviewsPageSize;
+        this.recommendationsPageSize = recommendationsPageSize;
+        this.topRecommendations = topRecommendations;
+        this.streamConcurrency = streamConcurrency;
+        this.streamMaxProducts = streamMaxProducts;
     }
 
     @Override
-    public ProductAggregate getProduct(int productId) {
-        Product product = productCompositeIntegration.getProduct(productId);
+    public Mono<ProductAggregate> getProduct(int productId, List<String> include, Integer topRecommendations) {
+        Set<AggregatePart> parts = AggregatePart.parse(include);
+        int top = (topRecommendations == null) ? this.topRecommendations : topRecommendations;
+        if (top < 0) {
+            throw new InvalidInputException("Invalid topRecommendations: " + top);
+        }
+        boolean defaultTop = top == this.topRecommendations;
+
+        Mono<ProductAggregate> aggregate;
+        if (parts.equals(AggregatePart.DEFAULT) && defaultTop) {
+            aggregate = productAggregateCache.get(productId, () -> loadProduct(productId, parts, top));
+        } else {
+            // A selection is cut out of a cached aggregate, or loaded with only the calls it needs and not cached.
+            // Cached aggregates carry no stats and only the default recommendations.
+            ProductAggregate cached = (parts.contains(AggregatePart.STATS) || !defaultTop) ? null : productAggregateCache.getIfPresent(productId);
+            aggregate = ((cached != null) ? Mono.just(cached) : loadProduct(productId, parts, top))
+                    .map(loaded -> select(loaded, parts));
+        }
+        return aggregate.flatMap(selected -> EntityTags.ifNoneMatch(selected, EntityTags.strong(selected.getVersion())));
+    }
+
+    private Mono<ProductAggregate> loadProduct(int productId, Set<AggregatePart> parts, int top) {
+        // Known missing products are rejected before any downstream call is made
+        return notFoundCache.get(productId, () -> loadFromCoreServices(productId, parts, top));
+    }
+
+    private Mono<ProductAggregate> loadFromCoreServices(int productId, Set<AggregatePart> parts, int top) {
+        Mono<Optional<Product>> product = !parts.contains(AggregatePart.PRODUCT) ? Mono.just(Optional.empty()) :
+                ServerTimings.time("product", productCompositeIntegration.getProduct(productId))
+                        .switchIfEmpty(Mono.error(() -> new NotFoundException(notFoundMessage(productId))))
+                        .map(Optional::of);
+        // One extra element tells whether there is a next page without a separate count query
+        Mono<Optional<List<Review>>> reviews = !parts.contains(AggregatePart.REVIEWS) ? Mono.just(Optional.empty()) :
+                ServerTimings.time("reviews", productCompositeIntegration.getReviews(productId, reviewsPageSize + 1, null).collectList())
+                        .map(Optional::of);
+        Mono<Optional<List<Recommendation>>> recommendations = !parts.contains(AggregatePart.RECOMMENDATIONS) ? Mono.just(Optional.empty()) :
+                ServerTimings.time("recommendations", getRecommendations(productId, top).collectList())
+                        .map(Optional::of);
+        Mono<Optional<RecommendationStats>> stats = !parts.contains(AggregatePart.STATS) ? Mono.just(Optional.empty()) :
+                ServerTimings.time("stats", productCompositeIntegration.getRecommendationStats(productId))
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty());
+
+        return Mono.zip(product, reviews, recommendations, stats)
+                .flatMap(tuple -> ServerTimings.time("aggregate", Mono.fromSupplier(() -> createProductAggregate(
+                        productId, tuple.getT1().orElse(null), tuple.getT2().orElse(null), tuple.getT3().orElse(null),
+                        tuple.getT4().orElse(null), serviceUtil.getServiceAddress(), recommendationsLimit(top)))));
+    }
+
+    // One extra element tells whether there are more recommendations
+    private Flux<Recommendation> getRecommendations(int productId, int top) {
+        return (top > 0)
+                ? productCompositeIntegration.getTopRecommendations(productId, top + 1)
+                : productCompositeIntegration.getRecommendations(productId, recommendationsPageSize + 1, null);
+    }
+
+    private Flux<Recommendation> getRecommendationsForProducts(List<Integer> productIds) {
+        return (topRecommendations > 0)
+                ? productCompositeIntegration.getRecommendationsForProducts(productIds, null, topRecommendations + 1)
+                : productCompositeIntegration.getRecommendationsForProducts(productIds, recommendationsPageSize + 1, null);
+    }
+
+    private int recommendationsLimit(int top) {
+        return (top > 0) ? top : recommendationsPageSize;
+    }
+
+    private ProductAggregate select(ProductAggregate aggregate, Set<AggregatePart> parts) {
+        boolean product = parts.contains(AggregatePart.PRODUCT);
+        boolean reviews = parts.contains(AggregatePart.REVIEWS);
+        boolean recommendations = parts.contains(AggregatePart.RECOMMENDATIONS);
+        boolean stats = parts.contains(AggregatePart.STATS);
+        ServiceAddresses addresses = aggregate.getServiceAddresses();
+        ServiceAddresses selectedAddresses = new ServiceAddresses(addresses.getCmp(),
+                product ? addresses.getPro() : null,
+                reviews ? addresses.getRev() : null,
+                recommendations ? addresses.getRec() : null);
+        return versioned(
+                aggregate.getProductId(),
+                product ? aggregate.getName() : null,
+                product ? aggregate.getWeight() : null,
+                recommendations ? aggregate.getRecommendations() : null,
+                reviews ? aggregate.getReviews() : null,
+                recommendations ? aggregate.getHasMoreRecommendations() : null,
+                reviews ? aggregate.getHasMoreReviews() : null,
+                stats ? aggregate.getRatings() : null,
+                selectedAddresses);
+    }
+
+    @Override
+    public Flux<ProductAggregateBatchItem> getProducts(List<Integer> productIds) {
+        List<Integer> distinctIds = productIds.stream().distinct().collect(Collectors.toList());
+        if (distinctIds.isEmpty() || distinctIds.size() > maxBatchSize) {
+            throw new InvalidInputException("Expected between 1 and " + maxBatchSize + " distinct productIds, got: " + distinctIds.size());
+        }
+        List<Integer> validIds = distinctIds.stream().filter(productId -> productId > 0).collect(Collectors.toList());
+
+        Map<Integer, ProductAggregate> cached = productAggregateCache.getAllPresent(validIds);
+        List<Integer> missingIds = validIds.stream()
+                .filter(productId -> !cached.containsKey(productId) && !notFoundCache.contains(productId))
+                .collect(Collectors.toList());
+        Map<Integer, Long> generations = productAggregateCache.generations(missingIds);
+        Map<Integer, Long> notFoundGenerations = notFoundCache.generations(missingIds);
+
+        Mono<Map<Integer, Product>> products = ServerTimings.time("product", productCompositeIntegration.getProducts(missingIds)
+                .collectMap(Product::getProductId, Function.identity()));
+        // The core services cut every product to the first page plus one, like the single product path
+        Mono<Map<Integer, List<Review>>> reviews = ServerTimings.time("reviews", productCompositeIntegration.getReviewsForProducts(missingIds, reviewsPageSize + 1)
+                .collect(Collectors.groupingBy(Review::getProductId)));
+        Mono<Map<Integer, List<Recommendation>>> recommendations = ServerTimings.time("recommendations", getRecommendationsForProducts(missingIds)
+                .collect(Collectors.groupingBy(Recommendation::getProductId)));
+
+        String serviceAddress = serviceUtil.getServiceAddress();
+        return Mono.zip(products, reviews, recommendations)
+                .doOnNext(tuple -> missingIds.stream()
+                        .filter(productId -> !tuple.getT1().containsKey(productId))
+                        .forEach(productId -> notFoundCache.put(notFoundGenerations.get(productId), productId, notFoundMessage(productId))))
+                .flatMapIterable(tuple -> distinctIds.stream()
+                        .map(productId -> createBatchItem(productId, cached, tuple.getT1(), tuple.getT2(), tuple.getT3(), serviceAddress, generations))
+                        .collect(Collectors.toList()));
+    }
+
+    @Override
+    public Flux<ProductAggregate> streamProducts(Integer fromProductId, Integer toProductId, List<Integer> productIds) {
+        Flux<Integer> ids;
+        if (productIds != null && !productIds.isEmpty()) {
+            if (productIds.size() > streamMaxProducts) {
+                throw new InvalidInputException("Expected at most " + streamMaxProducts + " productIds, got: " + productIds.size());
+            }
+            ids = Flux.fromIterable(productIds).distinct();
+        } else if (fromProductId != null && toProductId != null) {
+            if (fromProductId < 1 || toProductId < fromProductId || toProductId - fromProductId >= streamMaxProducts) {
+                throw new InvalidInputException("Invalid product id range: " + fromProductId + " - " + toProductId);
+            }
+            ids = Flux.range(fromProductId, toProductId - fromProductId + 1);
+        } else {
+            throw new InvalidInputException("Either fromProductId and toProductId or productIds must be specified");
+        }
+
+        // Bypasses the aggregate cache, a feed run must not evict the hot products
+        return ids.flatMapSequential(productId -> loadProduct(productId, AggregatePart.DEFAULT, topRecommendations)
+                        .onErrorResume(NotFoundException.class, ex -> Mono.empty()),
+                streamConcurrency, 1);
+    }
+
+    private ProductAggregateBatchItem createBatchItem(
+            int productId,
+            Map<Integer, ProductAggregate> cached,
+            Map<Integer, Product> products,
+            Map<Integer, List<Review>> reviews,
+            Map<Integer, List<Recommendation>> recommendations,
+            String serviceAddress,
+            Map<Integer, Long> generations) {
+        if (productId < 1) {
+            return new ProductAggregateBatchItem(productId, HttpStatus.UNPROCESSABLE_ENTITY, "Invalid productId: " + productId, null);
+        }
+        if (cached.containsKey(productId)) {
+            return new ProductAggregateBatchItem(productId, HttpStatus.OK, null, cached.get(productId));
+        }
+        Product product = products.get(productId);
         if (product == null) {
-            throw new NotFoundException("No Product found for ProductId: " + productId);
+            return new ProductAggregateBatchItem(productId, HttpStatus.NOT_FOUND, notFoundMessage(productId), null);
         }
-        List<Recommendation> recommendations = productCompositeIntegration.getRecommendations(productId);
-        List<Review> reviews = productCompositeIntegration.getReviews(productId);
-        return createProductAggregate(product, reviews, recommendations, serviceUtil.getServiceAddress());
+        // Cut to what the single product path fetches, the version is computed from these lists and
+        // has to be the same whichever path filled the cache
+        ProductAggregate aggregate = createProductAggregate(
+                product,
+                firstPage(reviews.getOrDefault(productId, Collections.emptyList()), Comparator.comparingInt(Review::getReviewId), reviewsPageSize),
+                firstPage(recommendations.getOrDefault(productId, Collections.emptyList()), recommendationOrder(), recommendationsLimit(topRecommendations)),
+                serviceAddress);
+        productAggregateCache.put(generations.get(productId), aggregate);
+        return new ProductAggregateBatchItem(productId, HttpStatus.OK, null, aggregate);
     }
 
-    private ProductAggregate createProductAggregate(
+    private static String notFoundMessage(int productId) {
+        return "No Product found for ProductId: " + productId;
+    }
+
+    // The same order as the single product path, the aggregates end up in the same cache
+    private Comparator<Recommendation> recommendationOrder() {
+        Comparator<Recommendation> byId = Comparator.comparingInt(Recommendation::getRecommendationId);
+        return (topRecommendations > 0) ? Comparator.comparingInt(Recommendation::getRate).reversed().thenComparing(byId) : byId;
+    }
+
+    // One extra element, like the single product path, tells whether there are more
+    private static <T> List<T> firstPage(List<T> list, Comparator<T> comparator, int pageSize) {
+        return list.stream().sorted(comparator).limit(pageSize + 1L).collect(Collectors.toList());
+    }
+
+    ProductAggregate createProductAggregate(
             Product product,
             List<Review> reviews,
             List<Recommendation> recommendations,
             String serviceAddress) {
-        int productId = product.getProductId();
-        String productName = product.getName();
-        int weight = product.getWeight();
+        return createProductAggregate(product.getProductId(), product, reviews, recommendations, null, serviceAddress,
+                recommendationsLimit(topRecommendations));
+    }
+
+    // Parts that were not selected are passed as null and stay null in the aggregate
+    private ProductAggregate createProductAggregate(
+            int productId,
+            Product product,
+            List<Review> reviews,
+            List<Recommendation> recommendations,
+            RecommendationStats stats,
+            String serviceAddress,
+            int recommendationsLimit) {
+        String productName = (product == null) ? null : product.getName();
+        Integer weight = (product == null) ? null : product.getWeight();
+
+        Boolean hasMoreRecommendations = (recommendations == null) ? null : recommendations.size() > recommendationsLimit;
+        Boolean hasMoreReviews = (reviews == null) ? null : reviews.size() > reviewsPageSize;
 
         List<RecommendationSummary> recommendationSummaries =
                 (recommendations == null) ? null : recommendations.stream()
+                        .limit(recommendationsLimit)
                         .map(r -> new RecommendationSummary(r.getRecommendationId(), r.getAuthor(), r.getRate()))
                         .collect(Collectors.toList());
 
         List<ReviewSummary> reviewSummaries =
                 (reviews == null) ? null : reviews.stream()
+                        .limit(reviewsPageSize)
                         .map(r -> new ReviewSummary(r.getReviewId(), r.getAuthor(), r.getSubject())).collect(Collectors.toList());
 
-        String productAddress = product.getServiceAddress();
+        RatingSummary ratings = (stats == null) ? null :
+                new RatingSummary(stats.getCount(), stats.getAverage(), stats.getMin(), stats.getMax(), stats.getHistogram());
+
+        String productAddress = (product == null) ? null : product.getServiceAddress();
         String recommendationAddress = (recommendations != null && !recommendations.isEmpty()) ? recommendations.get(0).getServiceAddress() : null;
         String reviewAddress = (reviews != null && !reviews.isEmpty()) ? reviews.get(0).getServiceAddress() : null;
 
         ServiceAddresses serviceAddresses = new ServiceAddresses(serviceAddress, productAddress, reviewAddress, recommendationAddress);
 
-        return new ProductAggregate(productId, productName, weight, recommendationSummaries, reviewSummaries, serviceAddresses);
+        return versioned(productId, productName, weight, recommendationSummaries, reviewSummaries,
+                hasMoreRecommendations, hasMoreReviews, ratings, serviceAddresses);
+    }
 
+    // Full aggregates and selections are versioned from what they render, service addresses included, so that
+    // the strong ETag changes whenever the body does and equal bodies have equal ETags whichever path built them
+    private static ProductAggregate versioned(int productId, String name, Integer weight, List<RecommendationSummary> recommendations,
+                                              List<ReviewSummary> reviews, Boolean hasMoreRecommendations, Boolean hasMoreReviews,
+                                              RatingSummary ratings, ServiceAddresses addresses) {
+        StringBuilder validator = new StringBuilder().append(productId);
+        if (name != null || weight != null) {
+            validator.append(";p").append(name).append('\0').append(weight);
+        }
+        if (reviews != null) {
+            reviews.forEach(r -> validator.append(";r").append(r.getReviewId())
+                    .append('\0').append(r.getAuthor()).append('\0').append(r.getSubject()));
+            validator.append(";r+").append(hasMoreReviews);
+        }
+        if (recommendations != null) {
+            recommendations.forEach(r -> validator.append(";c").append(r.getRecommendationId())
+                    .append('\0').append(r.getAuthor()).append('\0').append(r.getRate()));
+            validator.append(";c+").append(hasMoreRecommendations);
+        }
+        if (ratings != null) {
+            validator.append(";s").append(ratings.getCount()).append('\0').append(ratings.getAverage())
+                    .append('\0').append(ratings.getMin()).append('\0').append(ratings.getMax())
+                    .append('\0').append(ratings.getHistogram());
+        }
+        validator.append(";a").append(addresses.getCmp()).append('\0').append(addresses.getPro())
+                .append('\0').append(addresses.getRev()).append('\0').append(addresses.getRec());
+        return new ProductAggregate(productId, name, weight, recommendations, reviews, hasMoreRecommendations, hasMoreReviews,
+                ratings, addresses, EntityTags.digest(validator.toString()));
     }
 }
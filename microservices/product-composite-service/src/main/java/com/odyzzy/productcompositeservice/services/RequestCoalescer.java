@@ -0,0 +1,88 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.odyzzy.util.http.CorrelationIdFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+class RequestCoalescer<T> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final ConcurrentMap<Object, SharedCall> inFlight = new ConcurrentHashMap<>();
+    private final String operation;
+    private final Counter requests;
+    private final Counter calls;
+
+    RequestCoalescer(String operation, MeterRegistry meterRegistry) {
+        this.operation = operation;
+        this.requests = Counter.builder("composite.coalescing.requests")
+                .description("Callers asking for a downstream result")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        this.calls = Counter.builder("composite.coalescing.calls")
+                .description("Downstream calls actually issued")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("composite.coalescing.ratio", this, RequestCoalescer::ratio)
+                .description("Callers served per downstream call")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    Mono<T> execute(Object key, Supplier<Mono<T>> call) {
+        return Mono.deferContextual(context -> {
+            requests.increment();
+            SharedCall shared = inFlight.computeIfAbsent(key, k -> new SharedCall(k, call));
+            // The downstream call carries its own correlation id, this links the callers it serves to it
+            LOGGER.debug("Request {} served by {} call {} for {}",
+                    CorrelationIdFilter.get(context).orElse("-"), operation, shared.correlationId, key);
+            return shared.join();
+        });
+    }
+
+    private double ratio() {
+        double issued = calls.count();
+        return issued == 0 ? 1.0 : requests.count() / issued;
+    }
+
+    /**
+     * The call is subscribed on its own, with a context of its own, the callers only wait for its result.
+     * A caller that cancels does not cancel it for the others.
+     */
+    private final class SharedCall {
+
+        private final Object key;
+        private final Supplier<Mono<T>> call;
+        private final String correlationId = UUID.randomUUID().toString();
+        private final Sinks.One<T> result = Sinks.one();
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        SharedCall(Object key, Supplier<Mono<T>> call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        Mono<T> join() {
+            if (started.compareAndSet(false, true)) {
+                calls.increment();
+                call.get()
+                        .doFinally(signal -> inFlight.remove(key, this))
+                        .contextWrite(Context.of(CorrelationIdFilter.ATTRIBUTE, correlationId))
+                        .subscribe(result::tryEmitValue, result::tryEmitError, result::tryEmitEmpty);
+            }
+            return result.asMono();
+        }
+    }
+}
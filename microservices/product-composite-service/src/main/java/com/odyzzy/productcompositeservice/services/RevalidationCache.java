@@ -0,0 +1,92 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Remembers the last ETag and body per core service URL and revalidates with If-None-Match,
+ * so an unchanged product, review page or recommendation page costs a 304 instead of a payload.
+ */
+@Component
+public class RevalidationCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevalidationCache.class);
+
+    private final WebClient webClient;
+    private final boolean enabled;
+    private final Cache<String, Validated> validated;
+    private final Counter notModified;
+
+    public RevalidationCache(
+            WebClient webClient,
+            MeterRegistry meterRegistry,
+            @Value("${app.product-composite.revalidation.enabled:true}") boolean enabled,
+            @Value("${app.product-composite.revalidation.max-size:30000}") long maxSize,
+            @Value("${app.product-composite.revalidation.ttl:10m}") Duration ttl) {
+        this.webClient = webClient;
+        this.enabled = enabled;
+        this.validated = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.notModified = Counter.builder("composite.revalidation.not-modified")
+                .description("Downstream GETs answered with 304 and served from the last validated body")
+                .register(meterRegistry);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, validated, "revalidation");
+        LOGGER.info("Created revalidation cache, enabled: {}, max size: {}, ttl: {}", enabled, maxSize, ttl);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(String url, Function<ClientResponse, Mono<T>> bodyReader) {
+        return Mono.defer(() -> {
+            Validated previous = enabled ? validated.getIfPresent(url) : null;
+            return webClient.get().uri(url)
+                    .headers(headers -> {
+                        if (previous != null) {
+                            headers.setIfNoneMatch(previous.eTag);
+                        }
+                    })
+                    .exchangeToMono(response -> {
+                        if (previous != null && response.statusCode() == HttpStatus.NOT_MODIFIED) {
+                            notModified.increment();
+                            return response.releaseBody().thenReturn((T) previous.body);
+                        }
+                        if (!response.statusCode().is2xxSuccessful()) {
+                            return response.createException().flatMap(Mono::error);
+                        }
+                        String eTag = response.headers().asHttpHeaders().getETag();
+                        return bodyReader.apply(response).doOnNext(body -> {
+                            if (enabled && eTag != null) {
+                                validated.put(url, new Validated(eTag, body));
+                            }
+                        });
+                    });
+        });
+    }
+
+    private static class Validated {
+        private final String eTag;
+        private final Object body;
+
+        Validated(String eTag, Object body) {
+            this.eTag = eTag;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.odyzzy.util.http.CorrelationIdFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Collects stage timings for each request and returns them in a Server-Timing header. A sample
+ * of the requests is also logged as a single key=value line with the same breakdown.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ServerTimingFilter implements WebFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+    private final boolean enabled;
+    private final double logSampleRate;
+
+    public ServerTimingFilter(
+            @Value("${app.product-composite.server-timing.enabled:true}") boolean enabled,
+            @Value("${app.product-composite.server-timing.log-sample-rate:0.01}") double logSampleRate) {
+        this.enabled = enabled;
+        this.logSampleRate = logSampleRate;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        ServerTimings timings = new ServerTimings();
+
+        // Runs once the body is encoded, so the serialize stage is already recorded
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            timings.add("total", System.nanoTime() - start);
+            response.getHeaders().add("Server-Timing", timings.header());
+            if (ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+                HttpStatus status = response.getStatusCode();
+                LOGGER.info("server-timing correlationId={} method={} path={} status={} {}",
+                        exchange.getAttributeOrDefault(CorrelationIdFilter.ATTRIBUTE, "-"),
+                        exchange.getRequest().getMethodValue(),
+                        exchange.getRequest().getPath().value(),
+                        status == null ? 200 : status.value(),
+                        timings.logFields());
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange).contextWrite(context -> context.put(ServerTimings.CONTEXT_KEY, timings));
+    }
+}
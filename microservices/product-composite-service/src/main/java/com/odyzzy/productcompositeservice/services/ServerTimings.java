@@ -0,0 +1,70 @@
+package com.odyzzy.productcompositeservice.services;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Per-request stage durations, carried in the Reactor context by {@link ServerTimingFilter}.
+ * Stages recorded more than once, e.g. per product on the stream endpoint, are summed up.
+ */
+class ServerTimings {
+
+    static final String CONTEXT_KEY = ServerTimings.class.getName();
+
+    private final Map<String, Long> nanos = new LinkedHashMap<>();
+
+    static void record(ContextView context, String stage, long durationNanos) {
+        context.<ServerTimings>getOrEmpty(CONTEXT_KEY).ifPresent(timings -> timings.add(stage, durationNanos));
+    }
+
+    static <T> Mono<T> time(String stage, Mono<T> mono) {
+        return Mono.deferContextual(context -> context.<ServerTimings>getOrEmpty(CONTEXT_KEY)
+                .map(timings -> {
+                    // Recorded before the value is passed on, doFinally would run after downstream stages
+                    // and possibly after the header has been written
+                    long start = System.nanoTime();
+                    AtomicBoolean recorded = new AtomicBoolean();
+                    Runnable record = () -> {
+                        if (recorded.compareAndSet(false, true)) {
+                            timings.add(stage, System.nanoTime() - start);
+                        }
+                    };
+                    return mono
+                            .doOnSuccess(value -> record.run())
+                            .doOnError(ex -> record.run())
+                            .doOnCancel(record);
+                })
+                .orElse(mono));
+    }
+
+    synchronized void add(String stage, long durationNanos) {
+        nanos.merge(stage, durationNanos, Long::sum);
+    }
+
+    /**
+     * E.g. {@code product;dur=12.1, reviews;dur=9.8, aggregate;dur=0.05, total;dur=13.2}
+     */
+    String header() {
+        return format((stage, millis) -> stage + ";dur=" + millis, ", ");
+    }
+
+    /**
+     * E.g. {@code product=12.1 reviews=9.8 aggregate=0.05 total=13.2}
+     */
+    String logFields() {
+        return format((stage, millis) -> stage + "=" + millis, " ");
+    }
+
+    private synchronized String format(BiFunction<String, String, String> field, String separator) {
+        return nanos.entrySet().stream()
+                .map(entry -> field.apply(entry.getKey(), String.format(Locale.ROOT, "%.2f", entry.getValue() / 1_000_000.0)))
+                .collect(Collectors.joining(separator));
+    }
+}
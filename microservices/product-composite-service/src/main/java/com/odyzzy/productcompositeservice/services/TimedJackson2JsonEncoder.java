@@ -0,0 +1,39 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Records the time spent encoding single-value responses as the "serialize" stage.
+ */
+public class TimedJackson2JsonEncoder extends Jackson2JsonEncoder {
+
+    public TimedJackson2JsonEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (!(inputStream instanceof Mono)) {
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+        return Mono.from(inputStream)
+                .flatMap(value -> Mono.deferContextual(context -> {
+                    long start = System.nanoTime();
+                    DataBuffer buffer = encodeValue(value, bufferFactory, elementType, mimeType, hints);
+                    ServerTimings.record(context, "serialize", System.nanoTime() - start);
+                    return Mono.just(buffer);
+                }))
+                .flux();
+    }
+}
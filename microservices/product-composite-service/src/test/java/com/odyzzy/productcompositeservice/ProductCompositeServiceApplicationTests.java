@@ -2,21 +2,41 @@ package com.odyzzy.productcompositeservice;
 
 import com.odyzzy.api.core.product.Product;
 import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.api.core.recommendation.RecommendationStats;
 import com.odyzzy.api.core.review.Review;
 import com.odyzzy.api.exceptions.InvalidInputException;
 import com.odyzzy.api.exceptions.NotFoundException;
+import com.odyzzy.productcompositeservice.services.NotFoundCache;
+import com.odyzzy.productcompositeservice.services.ProductAggregateCache;
 import com.odyzzy.productcompositeservice.services.ProductCompositeIntegration;
+import com.odyzzy.util.http.CorrelationIdFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -25,10 +45,18 @@ class ProductCompositeServiceApplicationTests {
     private static final int PRODUCT_ID_OK = 1;
     private static final int PRODUCT_ID_NOT_FOUND = 2;
     private static final int PRODUCT_ID_INVALID = 3;
+    private static final int REVIEWS_PAGE_SIZE = 20;
+    private static final int RECOMMENDATIONS_PAGE_SIZE = 20;
 
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private ProductAggregateCache productAggregateCache;
+
+    @Autowired
+    private NotFoundCache notFoundCache;
+
     @MockBean
     private ProductCompositeIntegration productCompositeIntegration;
 
@@ -38,17 +66,23 @@ class ProductCompositeServiceApplicationTests {
 
     @BeforeEach
     void setUp() {
+        productAggregateCache.invalidateAll();
+        notFoundCache.invalidateAll();
+
+        when(productCompositeIntegration.getReviews(anyInt(), any(), any())).thenReturn(Flux.empty());
+        when(productCompositeIntegration.getRecommendations(anyInt(), any(), any())).thenReturn(Flux.empty());
+
         when(productCompositeIntegration.getProduct(PRODUCT_ID_OK))
-                .thenReturn(new Product(PRODUCT_ID_OK, "Name", 1, "mock-service"));
-        when(productCompositeIntegration.getReviews(PRODUCT_ID_OK))
-                .thenReturn(Collections.singletonList(new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock-service")));
-		when(productCompositeIntegration.getRecommendations(PRODUCT_ID_OK))
-				.thenReturn(Collections.singletonList(new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock-service")));
+                .thenReturn(Mono.just(new Product(PRODUCT_ID_OK, "Name", 1, "mock-service")));
+        when(productCompositeIntegration.getReviews(eq(PRODUCT_ID_OK), any(), any()))
+                .thenReturn(Flux.fromIterable(Collections.singletonList(new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock-service"))));
+		when(productCompositeIntegration.getRecommendations(eq(PRODUCT_ID_OK), any(), any()))
+				.thenReturn(Flux.fromIterable(Collections.singletonList(new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock-service"))));
 
         when(productCompositeIntegration.getProduct(PRODUCT_ID_NOT_FOUND))
-                .thenThrow(new NotFoundException("Not Found: "+ PRODUCT_ID_NOT_FOUND));
+                .thenReturn(Mono.error(new NotFoundException("Not Found: "+ PRODUCT_ID_NOT_FOUND)));
         when(productCompositeIntegration.getProduct(PRODUCT_ID_INVALID))
-                .thenThrow(new InvalidInputException("Invalid: " + PRODUCT_ID_INVALID));
+                .thenReturn(Mono.error(new InvalidInputException("Invalid: " + PRODUCT_ID_INVALID)));
     }
 
     @Test
@@ -62,7 +96,289 @@ class ProductCompositeServiceApplicationTests {
                 .expectBody()
                 .jsonPath("$.productId").isEqualTo(PRODUCT_ID_OK)
                 .jsonPath("$.recommendations.length()").isEqualTo(1)
-                .jsonPath("$.reviews.length()").isEqualTo(1);
+                .jsonPath("$.reviews.length()").isEqualTo(1)
+                .jsonPath("$.hasMoreReviews").isEqualTo(false);
+    }
+
+    @Test
+    void getProductReturnsServerTimingAndCorrelationId() {
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK)
+                .header(CorrelationIdFilter.HEADER, "test-correlation-id")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CorrelationIdFilter.HEADER, "test-correlation-id")
+                .expectHeader().value("Server-Timing", serverTiming -> {
+                    assertTrue(serverTiming.contains("product;dur="), serverTiming);
+                    assertTrue(serverTiming.contains("aggregate;dur="), serverTiming);
+                    assertTrue(serverTiming.contains("serialize;dur="), serverTiming);
+                    assertTrue(serverTiming.contains("total;dur="), serverTiming);
+                });
+    }
+
+    @Test
+    void getProductReturnsFirstPageOfReviews() {
+        when(productCompositeIntegration.getReviews(eq(PRODUCT_ID_OK), eq(REVIEWS_PAGE_SIZE + 1), isNull()))
+                .thenReturn(Flux.range(1, REVIEWS_PAGE_SIZE + 1)
+                        .map(reviewId -> new Review(PRODUCT_ID_OK, reviewId, "author", "subject", "content", "mock-service")));
+
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.reviews.length()").isEqualTo(REVIEWS_PAGE_SIZE)
+                .jsonPath("$.hasMoreReviews").isEqualTo(true)
+                .jsonPath("$.hasMoreRecommendations").isEqualTo(false);
+    }
+
+    @Test
+    void getProductByIdIsCached() {
+        getAndVerifyProduct(PRODUCT_ID_OK);
+        getAndVerifyProduct(PRODUCT_ID_OK);
+        verify(productCompositeIntegration, times(1)).getProduct(PRODUCT_ID_OK);
+
+        productAggregateCache.invalidate(PRODUCT_ID_OK);
+        getAndVerifyProduct(PRODUCT_ID_OK);
+        verify(productCompositeIntegration, times(2)).getProduct(PRODUCT_ID_OK);
+    }
+
+    @Test
+    void getProductWithIncludeSkipsOtherServices() {
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK + "?include=reviews")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.productId").isEqualTo(PRODUCT_ID_OK)
+                .jsonPath("$.reviews.length()").isEqualTo(1)
+                .jsonPath("$.name").doesNotExist()
+                .jsonPath("$.recommendations").doesNotExist()
+                .jsonPath("$.hasMoreRecommendations").doesNotExist();
+
+        verify(productCompositeIntegration, never()).getProduct(PRODUCT_ID_OK);
+        verify(productCompositeIntegration, never()).getRecommendations(eq(PRODUCT_ID_OK), any(), any());
+    }
+
+    @Test
+    void getProductWithIncludeUsesCachedAggregate() {
+        getAndVerifyProduct(PRODUCT_ID_OK);
+
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK + "?include=product,recommendations")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Name")
+                .jsonPath("$.recommendations.length()").isEqualTo(1)
+                .jsonPath("$.reviews").doesNotExist();
+
+        verify(productCompositeIntegration, times(1)).getProduct(PRODUCT_ID_OK);
+        verify(productCompositeIntegration, times(1)).getReviews(eq(PRODUCT_ID_OK), any(), any());
+    }
+
+    @Test
+    void getProductWithIncludeHasTheSameETagWhetherCachedOrLoaded() {
+        String loaded = getProductETag(PRODUCT_ID_OK + "?include=product,reviews");
+
+        getAndVerifyProduct(PRODUCT_ID_OK);
+        String cutFromCache = getProductETag(PRODUCT_ID_OK + "?include=product,reviews");
+
+        assertEquals(loaded, cutFromCache);
+        verify(productCompositeIntegration, times(2)).getProduct(PRODUCT_ID_OK);
+    }
+
+    @Test
+    void getProductWithAllDefaultPartsHasTheSameETagAsWithoutInclude() {
+        String withoutInclude = getProductETag(PRODUCT_ID_OK);
+
+        productAggregateCache.invalidate(PRODUCT_ID_OK);
+        String withInclude = getProductETag(PRODUCT_ID_OK + "?include=product,reviews,recommendations");
+
+        assertEquals(withoutInclude, withInclude);
+    }
+
+    @Test
+    void getProductETagCoversServiceAddresses() {
+        String first = getProductETag(PRODUCT_ID_OK);
+
+        productAggregateCache.invalidate(PRODUCT_ID_OK);
+        when(productCompositeIntegration.getProduct(PRODUCT_ID_OK))
+                .thenReturn(Mono.just(new Product(PRODUCT_ID_OK, "Name", 1, "other-mock-service")));
+        String otherAddress = getProductETag(PRODUCT_ID_OK);
+
+        assertNotEquals(first, otherAddress);
+    }
+
+    @Test
+    void getProductWithStats() {
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        histogram.put(3, 1L);
+        histogram.put(5, 3L);
+        when(productCompositeIntegration.getRecommendationStats(PRODUCT_ID_OK))
+                .thenReturn(Mono.just(new RecommendationStats(PRODUCT_ID_OK, 4, 4.5, 3, 5, histogram)));
+
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK + "?include=product,stats")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Name")
+                .jsonPath("$.ratings.count").isEqualTo(4)
+                .jsonPath("$.ratings.average").isEqualTo(4.5)
+                .jsonPath("$.ratings.histogram.5").isEqualTo(3)
+                .jsonPath("$.recommendations").doesNotExist();
+
+        verify(productCompositeIntegration, never()).getRecommendations(eq(PRODUCT_ID_OK), any(), any());
+    }
+
+    @Test
+    void getProductWithTopRecommendations() {
+        when(productCompositeIntegration.getTopRecommendations(PRODUCT_ID_OK, 3))
+                .thenReturn(Flux.just(
+                        new Recommendation(PRODUCT_ID_OK, 7, "author", 5, "content", "mock-service"),
+                        new Recommendation(PRODUCT_ID_OK, 2, "author", 4, "content", "mock-service"),
+                        new Recommendation(PRODUCT_ID_OK, 1, "author", 4, "content", "mock-service")));
+
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK + "?topRecommendations=2")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.recommendations.length()").isEqualTo(2)
+                .jsonPath("$.recommendations[0].recommendationId").isEqualTo(7)
+                .jsonPath("$.hasMoreRecommendations").isEqualTo(true);
+
+        verify(productCompositeIntegration, never()).getRecommendations(eq(PRODUCT_ID_OK), any(), any());
+    }
+
+    @Test
+    void getProductWithInvalidInclude() {
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK + "?include=reviews,price")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Invalid include: price, expected any of product,reviews,recommendations,stats");
+    }
+
+    @Test
+    void getProductNotFoundIsCached() {
+        getAndVerifyProductNotFound(PRODUCT_ID_NOT_FOUND);
+        getAndVerifyProductNotFound(PRODUCT_ID_NOT_FOUND);
+        verify(productCompositeIntegration, times(1)).getProduct(PRODUCT_ID_NOT_FOUND);
+        verify(productCompositeIntegration, times(1)).getReviews(eq(PRODUCT_ID_NOT_FOUND), any(), any());
+
+        notFoundCache.invalidate(PRODUCT_ID_NOT_FOUND);
+        getAndVerifyProductNotFound(PRODUCT_ID_NOT_FOUND);
+        verify(productCompositeIntegration, times(2)).getProduct(PRODUCT_ID_NOT_FOUND);
+    }
+
+    @Test
+    void getProductNotModified() {
+        String eTag = webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        webTestClient.get()
+                .uri("/product-composite/" + PRODUCT_ID_OK)
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getProductsByIds() {
+        when(productCompositeIntegration.getProducts(anyList()))
+                .thenReturn(Flux.just(new Product(PRODUCT_ID_OK, "Name", 1, "mock-service")));
+        when(productCompositeIntegration.getReviewsForProducts(anyList(), eq(REVIEWS_PAGE_SIZE + 1)))
+                .thenReturn(Flux.just(new Review(PRODUCT_ID_OK, 1, "author", "subject", "content", "mock-service")));
+        when(productCompositeIntegration.getRecommendationsForProducts(anyList(), eq(RECOMMENDATIONS_PAGE_SIZE + 1), isNull()))
+                .thenReturn(Flux.empty());
+
+        webTestClient.get()
+                .uri("/product-composite?productIds=" + PRODUCT_ID_NOT_FOUND + "," + PRODUCT_ID_OK + "," + PRODUCT_ID_NOT_FOUND + ",-1")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].productId").isEqualTo(PRODUCT_ID_NOT_FOUND)
+                .jsonPath("$[0].httpStatus").isEqualTo("NOT_FOUND")
+                .jsonPath("$[1].productId").isEqualTo(PRODUCT_ID_OK)
+                .jsonPath("$[1].product.reviews.length()").isEqualTo(1)
+                .jsonPath("$[1].product.recommendations.length()").isEqualTo(0)
+                .jsonPath("$[2].productId").isEqualTo(-1)
+                .jsonPath("$[2].httpStatus").isEqualTo("UNPROCESSABLE_ENTITY");
+    }
+
+    @Test
+    void getProductsByIdsCachesTheSameVersionAsGetProduct() {
+        int reviews = REVIEWS_PAGE_SIZE + 5;
+        when(productCompositeIntegration.getProducts(anyList()))
+                .thenReturn(Flux.just(new Product(PRODUCT_ID_OK, "Name", 1, "mock-service")));
+        when(productCompositeIntegration.getReviewsForProducts(anyList(), eq(REVIEWS_PAGE_SIZE + 1)))
+                .thenReturn(Flux.range(1, reviews)
+                        .map(reviewId -> new Review(PRODUCT_ID_OK, reviewId, "author", "subject", "content", "mock-service")));
+        when(productCompositeIntegration.getRecommendationsForProducts(anyList(), eq(RECOMMENDATIONS_PAGE_SIZE + 1), isNull()))
+                .thenReturn(Flux.just(new Recommendation(PRODUCT_ID_OK, 1, "author", 1, "content", "mock-service")));
+        when(productCompositeIntegration.getReviews(eq(PRODUCT_ID_OK), eq(REVIEWS_PAGE_SIZE + 1), isNull()))
+                .thenReturn(Flux.range(1, REVIEWS_PAGE_SIZE + 1)
+                        .map(reviewId -> new Review(PRODUCT_ID_OK, reviewId, "author", "subject", "content", "mock-service")));
+
+        webTestClient.get()
+                .uri("/product-composite?productIds=" + PRODUCT_ID_OK)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk();
+        String cachedByBatch = getProductETag(PRODUCT_ID_OK);
+
+        productAggregateCache.invalidate(PRODUCT_ID_OK);
+        String loadedBySingle = getProductETag(PRODUCT_ID_OK);
+
+        assertEquals(cachedByBatch, loadedBySingle);
+    }
+
+    @Test
+    void streamProducts() {
+        String body = webTestClient.get()
+                .uri("/product-composite/stream?productIds=" + PRODUCT_ID_OK + "," + PRODUCT_ID_NOT_FOUND + "," + PRODUCT_ID_OK)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        String[] lines = body.trim().split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].contains("\"productId\":" + PRODUCT_ID_OK));
+    }
+
+    @Test
+    void streamProductsInvalidRange() {
+        webTestClient.get()
+                .uri("/product-composite/stream?fromProductId=10&toProductId=5")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
     @Test
@@ -90,4 +406,34 @@ class ProductCompositeServiceApplicationTests {
                 .jsonPath("$.path").isEqualTo("/product-composite/" + PRODUCT_ID_INVALID)
                 .jsonPath("$.message").isEqualTo("Invalid: " + PRODUCT_ID_INVALID);
     }
+
+    private void getAndVerifyProductNotFound(int productId) {
+        webTestClient.get()
+                .uri("/product-composite/" + productId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_FOUND)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Not Found: " + productId);
+    }
+
+    private String getProductETag(Object productIdAndQuery) {
+        return webTestClient.get()
+                .uri("/product-composite/" + productIdAndQuery)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+    }
+
+    private void getAndVerifyProduct(int productId) {
+        webTestClient.get()
+                .uri("/product-composite/" + productId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.productId").isEqualTo(productId);
+    }
 }
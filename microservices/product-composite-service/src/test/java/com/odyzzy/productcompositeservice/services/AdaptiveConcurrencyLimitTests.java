@@ -0,0 +1,71 @@
+package com.odyzzy.productcompositeservice.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void rejectsAboveTheLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, Duration.ofMillis(100), 0.5);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.inFlight());
+
+        limit.onIgnored();
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    void growsWhileRequestsAreFastAndTheLimitIsUsed() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, Duration.ofMillis(100), 0.5);
+
+        for (int i = 0; i < 20; i++) {
+            fill(limit);
+            limit.onSuccess(FAST);
+            drain(limit);
+        }
+
+        assertTrue(limit.limit() > 4, "limit: " + limit.limit());
+    }
+
+    @Test
+    void backsOffOnSlowOrDroppedRequestsDownToTheMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 2, 10, Duration.ofMillis(100), 0.5);
+
+        limit.tryAcquire();
+        limit.onSuccess(SLOW);
+        assertEquals(4, limit.limit());
+
+        limit.tryAcquire();
+        limit.onDropped();
+        assertEquals(2, limit.limit());
+
+        limit.tryAcquire();
+        limit.onDropped();
+        assertEquals(2, limit.limit());
+    }
+
+    private static void fill(AdaptiveConcurrencyLimit limit) {
+        while (limit.tryAcquire()) {
+            // acquire every permit of the current limit
+        }
+    }
+
+    private static void drain(AdaptiveConcurrencyLimit limit) {
+        while (limit.inFlight() > 0) {
+            limit.onIgnored();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.odyzzy.api.exceptions.NotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DownstreamMetricsTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DownstreamMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new DownstreamMetrics(meterRegistry);
+    }
+
+    @Test
+    void successIsTaggedWithResponseStatus() {
+        Mono<String> call = Mono.deferContextual(context -> {
+            DownstreamMetrics.recordStatus(context, 200);
+            return Mono.just("ok");
+        });
+
+        StepVerifier.create(metrics.time("product-service", false, call)).expectNext("ok").verifyComplete();
+
+        assertEquals(1, timerCount("product-service", "success", "200"));
+    }
+
+    @Test
+    void notFoundIsTaggedAsNotFound() {
+        Mono<String> call = Mono.deferContextual(context -> {
+            DownstreamMetrics.recordStatus(context, 404);
+            return Mono.error(new NotFoundException("No product"));
+        });
+
+        StepVerifier.create(metrics.time("product-service", false, call)).expectError(NotFoundException.class).verify();
+
+        assertEquals(1, timerCount("product-service", "not_found", "404"));
+    }
+
+    @Test
+    void errorWithFallbackIsTaggedAsFallback() {
+        Mono<String> call = Mono.error(new TimeoutException());
+
+        StepVerifier.create(metrics.time("review-service", true, call).onErrorReturn("fallback"))
+                .expectNext("fallback")
+                .verifyComplete();
+
+        assertEquals(1, timerCount("review-service", "fallback", "none"));
+    }
+
+    private long timerCount(String service, String outcome, String status) {
+        return meterRegistry.get("composite.downstream.requests")
+                .tag("service", service)
+                .tag("outcome", outcome)
+                .tag("status", status)
+                .timer()
+                .count();
+    }
+}
@@ -0,0 +1,78 @@
+package com.odyzzy.productcompositeservice.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HedgingPolicyTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger attempts;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        attempts = new AtomicInteger();
+    }
+
+    @Test
+    void slowFirstAttemptIsHedged() {
+        HedgingPolicy policy = new HedgingPolicy("test", true, 0.95, Duration.ofMillis(50), meterRegistry);
+
+        StepVerifier.withVirtualTime(() -> policy.execute(() -> attempts.incrementAndGet() == 1 ? Mono.never() : Mono.just("second")))
+                .thenAwait(Duration.ofMillis(50))
+                .expectNext("second")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertEquals(1.0, meterRegistry.get("composite.hedge.requests").tag("dependency", "test").counter().count());
+        assertEquals(1.0, meterRegistry.get("composite.hedge.win.ratio").tag("dependency", "test").gauge().value());
+    }
+
+    @Test
+    void cancelledFirstAttemptIsSampled() {
+        HedgingPolicy policy = new HedgingPolicy("test", true, 0.95, Duration.ofMillis(50), meterRegistry);
+
+        StepVerifier.withVirtualTime(() -> policy.execute(() -> attempts.incrementAndGet() == 1 ? Mono.never() : Mono.just("second")))
+                .thenAwait(Duration.ofMillis(50))
+                .expectNext("second")
+                .verifyComplete();
+
+        // Both the winning second attempt and the cancelled first one feed the hedge delay
+        assertEquals(2, meterRegistry.get("composite.hedge.latency").tag("dependency", "test").timer().count());
+    }
+
+    @Test
+    void fastFirstAttemptIsNotHedged() {
+        HedgingPolicy policy = new HedgingPolicy("test", true, 0.95, Duration.ofMillis(50), meterRegistry);
+
+        StepVerifier.withVirtualTime(() -> policy.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.just("first");
+                }))
+                .expectNext("first")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, meterRegistry.get("composite.hedge.requests").tag("dependency", "test").counter().count());
+    }
+
+    @Test
+    void disabledPolicyNeverHedges() {
+        HedgingPolicy policy = new HedgingPolicy("test", false, 0.95, Duration.ofMillis(50), meterRegistry);
+
+        StepVerifier.withVirtualTime(() -> policy.execute(() -> attempts.incrementAndGet() == 1 ? Mono.delay(Duration.ofSeconds(1)).thenReturn("first") : Mono.just("second")))
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNext("first")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+    }
+}
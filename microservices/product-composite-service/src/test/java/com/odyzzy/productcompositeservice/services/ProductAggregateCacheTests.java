@@ -0,0 +1,70 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.odyzzy.api.composite.product.ProductAggregate;
+import com.odyzzy.api.composite.product.ServiceAddresses;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProductAggregateCacheTests {
+
+    private ProductAggregateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductAggregateCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1),
+                ProductAggregateCache.ExpiryPolicy.AFTER_WRITE);
+    }
+
+    @Test
+    void writeToAnotherProductKeepsTheLoad() {
+        Sinks.One<ProductAggregate> loaded = Sinks.one();
+
+        StepVerifier.create(cache.get(1, loaded::asMono))
+                .then(() -> cache.invalidate(2))
+                .then(() -> loaded.tryEmitValue(aggregate(1)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertNotNull(cache.getIfPresent(1));
+    }
+
+    @Test
+    void writeToTheSameProductDiscardsTheLoad() {
+        Sinks.One<ProductAggregate> loaded = Sinks.one();
+
+        StepVerifier.create(cache.get(1, loaded::asMono))
+                .then(() -> cache.invalidate(1))
+                .then(() -> loaded.tryEmitValue(aggregate(1)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertNull(cache.getIfPresent(1));
+    }
+
+    @Test
+    void invalidateAllDiscardsEveryLoad() {
+        long generation = cache.generations(Collections.singletonList(1)).get(1);
+
+        cache.invalidateAll();
+        cache.put(generation, aggregate(1));
+
+        assertNull(cache.getIfPresent(1));
+        StepVerifier.create(cache.get(1, () -> Mono.just(aggregate(1)))).expectNextCount(1).verifyComplete();
+        assertNotNull(cache.getIfPresent(1));
+    }
+
+    private static ProductAggregate aggregate(int productId) {
+        return new ProductAggregate(productId, "name", 1, null, null, null, null, null,
+                new ServiceAddresses("cmp", "pro", null, null), "v");
+    }
+}
@@ -0,0 +1,160 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odyzzy.api.exceptions.InvalidInputException;
+import com.odyzzy.api.exceptions.NotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the integration against a stubbed WebClient, with circuit breaker and bulkhead settings small enough
+ * to trip in a few calls. The ignored exceptions are the same as in application.yml.
+ */
+class ProductCompositeIntegrationTests {
+
+    private static final int MINIMUM_NUMBER_OF_CALLS = 4;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private AtomicInteger downstreamCalls;
+    private Function<ClientRequest, Mono<ClientResponse>> downstream;
+    private ProductCompositeIntegration integration;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(MINIMUM_NUMBER_OF_CALLS)
+                .minimumNumberOfCalls(MINIMUM_NUMBER_OF_CALLS)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .ignoreExceptions(InvalidInputException.class, NotFoundException.class, BulkheadFullException.class)
+                .build());
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        downstreamCalls = new AtomicInteger();
+        downstream = request -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    downstreamCalls.incrementAndGet();
+                    return downstream.apply(request);
+                })
+                .filter(DownstreamMetrics.statusRecording())
+                .build();
+        integration = new ProductCompositeIntegration(
+                webClient,
+                new ObjectMapper(),
+                new ProductAggregateCache(meterRegistry, false, 1, Duration.ofSeconds(30), ProductAggregateCache.ExpiryPolicy.AFTER_WRITE),
+                new NotFoundCache(meterRegistry, false, 1, Duration.ofSeconds(10)),
+                new RevalidationCache(webClient, meterRegistry, false, 1, Duration.ofMinutes(10)),
+                meterRegistry,
+                circuitBreakerRegistry,
+                bulkheadRegistry,
+                "product", 7001, "review", 7003, "recommendation", 7002,
+                Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ofSeconds(1),
+                false, false, 0.95, Duration.ofMillis(50),
+                MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void failingProductServiceOpensTheCircuit() {
+        for (int i = 0; i < MINIMUM_NUMBER_OF_CALLS; i++) {
+            StepVerifier.create(integration.getProduct(1)).expectError(WebClientResponseException.InternalServerError.class).verify();
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker("product-service").getState());
+        StepVerifier.create(integration.getProduct(1)).expectError(CallNotPermittedException.class).verify();
+        assertEquals(MINIMUM_NUMBER_OF_CALLS, downstreamCalls.get());
+    }
+
+    @Test
+    void openRecommendationCircuitFallsBackToNoRecommendations() {
+        circuitBreakerRegistry.circuitBreaker("recommendation-service").transitionToOpenState();
+
+        StepVerifier.create(integration.getRecommendations(1, 5, null)).verifyComplete();
+        assertEquals(0, downstreamCalls.get());
+    }
+
+    @Test
+    void notFoundAndInvalidInputDoNotOpenTheCircuit() {
+        downstream = request -> Mono.just(error(request.url().getPath().endsWith("/13") ? HttpStatus.NOT_FOUND : HttpStatus.UNPROCESSABLE_ENTITY));
+
+        for (int i = 0; i < MINIMUM_NUMBER_OF_CALLS; i++) {
+            StepVerifier.create(integration.getProduct(13)).expectError(NotFoundException.class).verify();
+            StepVerifier.create(integration.getProduct(-1)).expectError(InvalidInputException.class).verify();
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker("product-service");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void fullBulkheadRejectsWithoutCallingDownstream() {
+        downstream = request -> Mono.never();
+        Disposable inFlight = integration.getProduct(1).subscribe(product -> { }, ex -> { });
+
+        try {
+            StepVerifier.create(integration.getProduct(2)).expectError(BulkheadFullException.class).verify();
+        } finally {
+            inFlight.dispose();
+        }
+
+        assertEquals(1, downstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("composite.bulkhead.rejected").tag("name", "product-service").counter().count());
+        // A rejection says nothing about the health of product-service
+        assertEquals(0, circuitBreakerRegistry.circuitBreaker("product-service").getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void batchCallsAreTaggedWithResponseStatus() {
+        downstream = request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("[]")
+                .build());
+
+        StepVerifier.create(integration.getProducts(Arrays.asList(1, 2))).verifyComplete();
+        StepVerifier.create(integration.getReviewsForProducts(Arrays.asList(1, 2), 5)).verifyComplete();
+
+        assertEquals(1, meterRegistry.get("composite.downstream.requests")
+                .tags("service", "product-service", "status", "200").timer().count());
+        assertEquals(1, meterRegistry.get("composite.downstream.requests")
+                .tags("service", "review-service", "status", "200").timer().count());
+    }
+
+    private static ClientResponse error(HttpStatus status) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body("{\"message\":\"" + status.getReasonPhrase() + "\"}")
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.odyzzy.productcompositeservice.services;
+
+import com.odyzzy.util.http.CorrelationIdFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RequestCoalescerTests {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer<String> coalescer;
+    private AtomicInteger downstreamCalls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer<>("test", meterRegistry);
+        downstreamCalls = new AtomicInteger();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() {
+        Sinks.One<String> response = Sinks.one();
+
+        StepVerifier.create(Mono.zip(coalescer.execute(1, call(response)), coalescer.execute(1, call(response))))
+                .then(() -> response.tryEmitValue("result"))
+                .expectNextMatches(tuple -> tuple.getT1().equals("result") && tuple.getT2().equals("result"))
+                .verifyComplete();
+
+        assertEquals(1, downstreamCalls.get());
+        assertEquals(2.0, meterRegistry.get("composite.coalescing.ratio").tag("operation", "test").gauge().value());
+    }
+
+    @Test
+    void errorsAreSharedAndNotRemembered() {
+        Sinks.One<String> failing = Sinks.one();
+
+        StepVerifier.create(Mono.zip(coalescer.execute(1, call(failing)), coalescer.execute(1, call(failing))))
+                .then(() -> failing.tryEmitError(new IllegalStateException("boom")))
+                .verifyError(IllegalStateException.class);
+        assertEquals(1, downstreamCalls.get());
+
+        StepVerifier.create(coalescer.execute(1, () -> {
+                    downstreamCalls.incrementAndGet();
+                    return Mono.just("retried");
+                }))
+                .expectNext("retried")
+                .verifyComplete();
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    @Test
+    void cancelledCallerDoesNotCancelTheSharedCall() {
+        Sinks.One<String> response = Sinks.one();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Supplier<Mono<String>> call = () -> {
+            downstreamCalls.incrementAndGet();
+            return response.asMono().doOnCancel(() -> cancelled.set(true));
+        };
+
+        Disposable first = coalescer.execute(1, call).subscribe();
+        StepVerifier.create(coalescer.execute(1, call))
+                .then(first::dispose)
+                .then(() -> response.tryEmitValue("result"))
+                .expectNext("result")
+                .verifyComplete();
+
+        assertFalse(cancelled.get());
+        assertEquals(1, downstreamCalls.get());
+    }
+
+    @Test
+    void sharedCallDoesNotRunInTheCallersContext() {
+        Supplier<Mono<String>> call = () -> Mono.deferContextual(context ->
+                Mono.just(CorrelationIdFilter.get(context).orElse("none")));
+
+        String correlationId = coalescer.execute(1, call)
+                .contextWrite(Context.of(CorrelationIdFilter.ATTRIBUTE, "first-caller"))
+                .block();
+
+        assertNotEquals("first-caller", correlationId);
+        assertNotEquals("none", correlationId);
+    }
+
+    @Test
+    void differentProductIdsAreNotCoalesced() {
+        StepVerifier.create(Mono.zip(coalescer.execute(1, () -> value("a")), coalescer.execute(2, () -> value("b"))))
+                .expectNextMatches(tuple -> tuple.getT1().equals("a") && tuple.getT2().equals("b"))
+                .verifyComplete();
+        assertEquals(2, downstreamCalls.get());
+    }
+
+    private Supplier<Mono<String>> call(Sinks.One<String> response) {
+        return () -> {
+            downstreamCalls.incrementAndGet();
+            return response.asMono();
+        };
+    }
+
+    private Mono<String> value(String value) {
+        downstreamCalls.incrementAndGet();
+        return Mono.just(value);
+    }
+}
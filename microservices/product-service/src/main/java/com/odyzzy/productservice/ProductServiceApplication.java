@@ -2,14 +2,20 @@ package com.odyzzy.productservice;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
-import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @SpringBootApplication
-@EnableMongoRepositories
+@EnableReactiveMongoRepositories
 @ComponentScan("com.odyzzy")
 public class ProductServiceApplication {
 
@@ -22,4 +28,19 @@ public class ProductServiceApplication {
 		LOG.info("Connected to MongoDb: " + mongodDbHost + ":" + mongodDbPort);
 	}
 
+	@Bean
+	MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+			@Value("${app.mongodb.pool.max-size:100}") int maxSize,
+			@Value("${app.mongodb.pool.min-size:0}") int minSize,
+			@Value("${app.mongodb.pool.max-connecting:2}") int maxConnecting,
+			@Value("${app.mongodb.pool.max-wait-time:2s}") Duration maxWaitTime) {
+		LOG.info("Mongo connection pool max size: {}, min size: {}, max connecting: {}, max wait time: {}",
+				maxSize, minSize, maxConnecting, maxWaitTime);
+		return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+				.maxSize(maxSize)
+				.minSize(minSize)
+				.maxConnecting(maxConnecting)
+				.maxWaitTime(maxWaitTime.toMillis(), TimeUnit.MILLISECONDS));
+	}
+
 }
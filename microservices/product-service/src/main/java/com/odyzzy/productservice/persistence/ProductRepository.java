@@ -1,10 +1,17 @@
 package com.odyzzy.productservice.persistence;
 
-import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Optional;
+import java.util.Collection;
 
-public interface ProductRepository extends PagingAndSortingRepository<ProductEntity, String> {
+public interface ProductRepository extends ReactiveSortingRepository<ProductEntity, String> {
 
-    Optional<ProductEntity> findByProductId(int productId);
+    Mono<ProductEntity> findByProductId(int productId);
+
+    Flux<ProductEntity> findByProductIdIn(Collection<Integer> productIds);
+
+    Flux<ProductEntity> findAllBy(Pageable pageable);
 }
@@ -6,11 +6,18 @@ import com.odyzzy.api.exceptions.InvalidInputException;
 import com.odyzzy.api.exceptions.NotFoundException;
 import com.odyzzy.productservice.persistence.ProductEntity;
 import com.odyzzy.productservice.persistence.ProductRepository;
+import com.odyzzy.util.http.EntityTags;
 import com.odyzzy.util.http.ServiceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 public class ProductServiceImpl implements ProductService {
@@ -28,34 +35,45 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public Product getProduct(int productId) {
+    public Mono<Product> getProduct(int productId) {
         if (productId < 1) {
             throw new InvalidInputException("Invalid productId: " + productId);
         }
 
-        ProductEntity entity = repository.findByProductId(productId).orElseThrow(() ->
-                new NotFoundException("No product found for ProductId: " + productId));
-
-        Product response = mapper.entityToApi(entity);
-        response.setServiceAddress(serviceUtil.getServiceAddress());
-        return response;
+        return repository.findByProductId(productId)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("No product found for ProductId: " + productId)))
+                .map(this::toApi)
+                .flatMap(product -> EntityTags.ifNoneMatch(product, EntityTags.strong(productId + "." + product.getVersion())));
     }
 
     @Override
-    public Product createProduct(Product product) {
-        try {
-            ProductEntity entity = mapper.apiToEntity(product);
-            ProductEntity savedEntity = repository.save(entity);
-            return mapper.entityToApi(savedEntity);
-        } catch (DuplicateKeyException dke) {
-            throw new InvalidInputException("Duplicate key, ProductId: " + product.getProductId());
+    public Flux<Product> getProducts(List<Integer> productIds) {
+        Set<Integer> distinctIds = new HashSet<>(productIds);
+        if (distinctIds.stream().anyMatch(productId -> productId < 1)) {
+            throw new InvalidInputException("Invalid productIds: " + productIds);
         }
+
+        return repository.findByProductIdIn(distinctIds)
+                .map(this::toApi);
     }
 
     @Override
-    public void deleteProduct(int productId) {
-        repository.findByProductId(productId).ifPresent(e -> repository.delete(e));
+    public Mono<Product> createProduct(Product product) {
+        ProductEntity entity = mapper.apiToEntity(product);
+        return repository.save(entity)
+                .onErrorMap(DuplicateKeyException.class, ex -> new InvalidInputException("Duplicate key, ProductId: " + product.getProductId()))
+                .map(mapper::entityToApi);
     }
 
+    @Override
+    public Mono<Void> deleteProduct(int productId) {
+        return repository.findByProductId(productId)
+                .flatMap(repository::delete);
+    }
 
+    private Product toApi(ProductEntity entity) {
+        Product response = mapper.entityToApi(entity);
+        response.setServiceAddress(serviceUtil.getServiceAddress());
+        return response;
+    }
 }
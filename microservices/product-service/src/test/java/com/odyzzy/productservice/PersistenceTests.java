@@ -10,13 +10,13 @@ import org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoCo
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import reactor.test.StepVerifier;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static java.util.stream.IntStream.rangeClosed;
@@ -31,79 +31,99 @@ public class PersistenceTests extends MongoDbTestBase {
 
     @BeforeEach
     void setupDb() {
-        repository.deleteAll();
+        StepVerifier.create(repository.deleteAll()).verifyComplete();
 
         ProductEntity entity = new ProductEntity(1, "n", 1);
-        savedEntity = repository.save(entity);
-        assertEqualsProduct(entity, savedEntity);
+        StepVerifier.create(repository.save(entity))
+                .expectNextMatches(createdEntity -> {
+                    savedEntity = createdEntity;
+                    return areProductEqual(entity, savedEntity);
+                })
+                .verifyComplete();
     }
 
     @Test
     void create() {
         ProductEntity entity = new ProductEntity(2, "n", 2);
-        repository.save(entity);
+        StepVerifier.create(repository.save(entity))
+                .expectNextMatches(createdEntity -> entity.getProductId() == createdEntity.getProductId())
+                .verifyComplete();
 
-        ProductEntity foundEntity = repository.findByProductId(entity.getProductId()).get();
-        assertEqualsProduct(entity, foundEntity);
-        Assert.assertEquals(2, repository.count());
+        StepVerifier.create(repository.findByProductId(entity.getProductId()))
+                .expectNextMatches(foundEntity -> areProductEqual(entity, foundEntity))
+                .verifyComplete();
+
+        StepVerifier.create(repository.count()).expectNext(2L).verifyComplete();
     }
 
     @Test
     void update() {
         savedEntity.setName("n2");
-        repository.save(savedEntity);
+        StepVerifier.create(repository.save(savedEntity))
+                .expectNextMatches(updatedEntity -> updatedEntity.getName().equals("n2"))
+                .verifyComplete();
 
-        ProductEntity foundEntity = repository.findByProductId(savedEntity.getProductId()).get();
-        Assert.assertEquals(1, (long) foundEntity.getVersion());
-        Assert.assertEquals("n2", foundEntity.getName());
+        StepVerifier.create(repository.findByProductId(savedEntity.getProductId()))
+                .expectNextMatches(foundEntity -> foundEntity.getVersion() == 1 && foundEntity.getName().equals("n2"))
+                .verifyComplete();
     }
 
     @Test
     void delete() {
-        repository.delete(savedEntity);
-        Assert.assertFalse(repository.existsById(savedEntity.getId()));
+        StepVerifier.create(repository.delete(savedEntity)).verifyComplete();
+        StepVerifier.create(repository.existsById(savedEntity.getId())).expectNext(false).verifyComplete();
     }
 
     @Test
     void getByProductId() {
-        Optional<ProductEntity> entity = repository.findByProductId(savedEntity.getProductId());
-        Assert.assertTrue(entity.isPresent());
-        assertEqualsProduct(savedEntity, entity.get());
+        StepVerifier.create(repository.findByProductId(savedEntity.getProductId()))
+                .expectNextMatches(foundEntity -> areProductEqual(savedEntity, foundEntity))
+                .verifyComplete();
+    }
+
+    @Test
+    void getByProductIdIn() {
+        StepVerifier.create(repository.saveAll(Arrays.asList(new ProductEntity(2, "n", 2), new ProductEntity(3, "n", 3))))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        List<Integer> productIds = repository.findByProductIdIn(Arrays.asList(1, 3, 4))
+                .map(ProductEntity::getProductId)
+                .sort()
+                .collectList()
+                .block();
+        Assert.assertEquals("[1, 3]", productIds.toString());
     }
 
     @Test
     void duplicateError() {
-        Assert.assertThrows(DuplicateKeyException.class, () -> {
-            ProductEntity entity = new ProductEntity(savedEntity.getProductId(), "n", 1);
-            repository.save(entity);
-        });
+        ProductEntity entity = new ProductEntity(savedEntity.getProductId(), "n", 1);
+        StepVerifier.create(repository.save(entity)).expectError(DuplicateKeyException.class).verify();
     }
 
     @Test
     void optimisticLockError() {
-        ProductEntity entity1 = repository.findById(savedEntity.getId()).get();
-        ProductEntity entity2 = repository.findById(savedEntity.getId()).get();
+        ProductEntity entity1 = repository.findById(savedEntity.getId()).block();
+        ProductEntity entity2 = repository.findById(savedEntity.getId()).block();
 
         entity1.setName("n1");
-        repository.save(entity1);
+        repository.save(entity1).block();
 
-        Assert.assertThrows(OptimisticLockingFailureException.class, () -> {
-            entity2.setName("n2");
-            repository.save(entity2);
-        });
+        entity2.setName("n2");
+        StepVerifier.create(repository.save(entity2)).expectError(OptimisticLockingFailureException.class).verify();
 
-        ProductEntity updatedEntity = repository.findById(savedEntity.getId()).get();
-        Assert.assertEquals(1, updatedEntity.getVersion().intValue());
-        Assert.assertEquals("n1", updatedEntity.getName());
+        StepVerifier.create(repository.findById(savedEntity.getId()))
+                .expectNextMatches(foundEntity -> foundEntity.getVersion() == 1 && foundEntity.getName().equals("n1"))
+                .verifyComplete();
     }
 
     @Test
     void paging() {
-        repository.deleteAll();
+        StepVerifier.create(repository.deleteAll()).verifyComplete();
         List<ProductEntity> newProducts = rangeClosed(1001, 1010)
                 .mapToObj(i -> new ProductEntity(i, "name" + i, i))
                 .collect(Collectors.toList());
-        repository.saveAll(newProducts);
+        StepVerifier.create(repository.saveAll(newProducts)).expectNextCount(10).verifyComplete();
 
         Pageable nextPage = PageRequest.of(0, 4, Sort.Direction.ASC, "productId");
         nextPage = testNextPage(nextPage, "[1001, 1002, 1003, 1004]", true);
@@ -111,19 +131,23 @@ public class PersistenceTests extends MongoDbTestBase {
         nextPage = testNextPage(nextPage, "[1009, 1010]", false);
     }
 
-    private void assertEqualsProduct(ProductEntity expected, ProductEntity actual) {
-        Assert.assertEquals(expected.getId(), actual.getId());
-        Assert.assertEquals(expected.getVersion(), actual.getVersion());
-        Assert.assertEquals(expected.getProductId(), actual.getProductId());
-        Assert.assertEquals(expected.getName(), actual.getName());
-        Assert.assertEquals(expected.getWeight(), actual.getWeight());
+    private boolean areProductEqual(ProductEntity expected, ProductEntity actual) {
+        return (expected.getId().equals(actual.getId()))
+                && (expected.getVersion().equals(actual.getVersion()))
+                && (expected.getProductId() == actual.getProductId())
+                && (expected.getName().equals(actual.getName()))
+                && (expected.getWeight() == actual.getWeight());
     }
 
     private Pageable testNextPage(Pageable nextPage, String expectedProductIds, boolean expectsNextPage) {
-        Page<ProductEntity> productPage = repository.findAll(nextPage);
-        Assert.assertEquals(expectedProductIds, productPage.getContent().stream()
-                .map(p -> p.getProductId()).collect(Collectors.toList()).toString());
-        Assert.assertEquals(expectsNextPage, productPage.hasNext());
-        return productPage.nextPageable();
+        List<Integer> productIds = repository.findAllBy(nextPage)
+                .map(ProductEntity::getProductId)
+                .collectList()
+                .block();
+        Assert.assertEquals(expectedProductIds, productIds.toString());
+
+        long total = repository.count().block();
+        Assert.assertEquals(expectsNextPage, nextPage.getOffset() + nextPage.getPageSize() < total);
+        return nextPage.next();
     }
 }
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -24,20 +25,59 @@ class ProductServiceApplicationTests extends MongoDbTestBase {
 
     @BeforeEach
     void setupDb() {
-        repository.deleteAll();
+        repository.deleteAll().block();
     }
 
     @Test
     void duplicateError() {
         int productId = 1;
         postAndVerifyProduct(productId, HttpStatus.OK);
-        Assert.assertTrue(repository.findByProductId(productId).isPresent());
+        Assert.assertNotNull(repository.findByProductId(productId).block());
 
         postAndVerifyProduct(productId, HttpStatus.UNPROCESSABLE_ENTITY)
                 .jsonPath("$.path").isEqualTo("/products")
                 .jsonPath("$.message").isEqualTo("Duplicate key, ProductId: " + productId);
     }
 
+    @Test
+    void getProductNotModified() {
+        int productId = 1;
+        postAndVerifyProduct(productId, HttpStatus.OK);
+
+        String eTag = client.get()
+                .uri("/products/" + productId)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(Product.class)
+                .getResponseHeaders().getETag();
+
+        client.get()
+                .uri("/products/" + productId)
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getProductAsSmile() {
+        int productId = 1;
+        postAndVerifyProduct(productId, HttpStatus.OK);
+
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+        client.get()
+                .uri("/products/" + productId)
+                .accept(smile)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(smile)
+                .expectBody(Product.class)
+                .value(product -> Assert.assertEquals(productId, product.getProductId()));
+    }
+
     private WebTestClient.BodyContentSpec postAndVerifyProduct(int productId, HttpStatus expectedStatus) {
         Product product = new Product(productId, "Name " + productId, productId, "SA");
         return client.post()
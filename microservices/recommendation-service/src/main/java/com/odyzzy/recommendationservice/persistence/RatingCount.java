@@ -0,0 +1,28 @@
+package com.odyzzy.recommendationservice.persistence;
+
+import org.springframework.data.annotation.Id;
+
+// One row of the rating histogram, the grouped rating ends up in _id
+public class RatingCount {
+
+    @Id
+    private int rating;
+
+    private long count;
+
+    public int getRating() {
+        return rating;
+    }
+
+    public void setRating(int rating) {
+        this.rating = rating;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
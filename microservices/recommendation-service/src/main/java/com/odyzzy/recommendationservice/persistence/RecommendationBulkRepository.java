@@ -0,0 +1,12 @@
+package com.odyzzy.recommendationservice.persistence;
+
+import com.mongodb.bulk.BulkWriteError;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface RecommendationBulkRepository {
+
+    // Emits the write errors, their index refers to the given list, an empty list if every entity was inserted
+    Mono<List<BulkWriteError>> insertUnordered(List<RecommendationEntity> entities);
+}
@@ -0,0 +1,39 @@
+package com.odyzzy.recommendationservice.persistence;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class RecommendationBulkRepositoryImpl implements RecommendationBulkRepository {
+
+    private final ReactiveMongoOperations mongoOperations;
+
+    RecommendationBulkRepositoryImpl(ReactiveMongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    // The template's insertAll is ordered and stops at the first duplicate, so the driver is used directly
+    @Override
+    public Mono<List<BulkWriteError>> insertUnordered(List<RecommendationEntity> entities) {
+        List<Document> documents = entities.stream().map(this::toDocument).collect(Collectors.toList());
+        return mongoOperations.getCollection(mongoOperations.getCollectionName(RecommendationEntity.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .map(result -> Collections.<BulkWriteError>emptyList())
+                .onErrorResume(MongoBulkWriteException.class, ex -> Mono.just(ex.getWriteErrors()));
+    }
+
+    private Document toDocument(RecommendationEntity entity) {
+        // The initial version the template assigns on insert
+        entity.setVersion(0);
+        Document document = new Document();
+        mongoOperations.getConverter().write(entity, document);
+        return document;
+    }
+}
@@ -3,10 +3,16 @@ package com.odyzzy.recommendationservice.persistence;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-@Document(collation = "recommendations")
-@CompoundIndex(name = "prod-rec-id", unique = true, def = "{'productId': 1, 'recommendationId': 1}")
+@Document(collection = "recommendations")
+@CompoundIndexes({
+        @CompoundIndex(name = "prod-rec-id", unique = true, def = "{'productId': 1, 'recommendationId': 1}"),
+        // Answers the top rated query from the index alone, no sort stage and no document fetch, and covers
+        // the rating stats pipeline. author and version are what a top rated read returns next to the keys.
+        @CompoundIndex(name = "prod-rating-top", def = "{'productId': 1, 'rating': -1, 'recommendationId': 1, 'author': 1, 'version': 1}")
+})
 public class RecommendationEntity {
 
     @Id
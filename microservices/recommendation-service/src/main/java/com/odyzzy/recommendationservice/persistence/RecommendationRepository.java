@@ -1,10 +1,55 @@
 package com.odyzzy.recommendationservice.persistence;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 
-import java.util.List;
+import java.util.Collection;
 
-public interface RecommendationRepository extends CrudRepository<RecommendationEntity, String> {
+public interface RecommendationRepository extends ReactiveCrudRepository<RecommendationEntity, String>, RecommendationBulkRepository {
 
-    List<RecommendationEntity> findByProductId(int productId);
+    Flux<RecommendationEntity> findByProductId(int productId);
+
+    Flux<RecommendationEntity> findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(int productId, int recommendationId, Pageable pageable);
+
+    // Projected to the fields of the prod-rating-top index, so the query is covered and content is not returned
+    @Query(value = "{ 'productId': ?0 }",
+            fields = "{ '_id': 0, 'productId': 1, 'rating': 1, 'recommendationId': 1, 'author': 1, 'version': 1 }",
+            sort = "{ 'rating': -1, 'recommendationId': 1 }")
+    Flux<RecommendationEntity> findTopRatedByProductId(int productId, Pageable pageable);
+
+    Flux<RecommendationEntity> findByProductIdIn(Collection<Integer> productIds);
+
+    // The first recommendations of every product in one round trip, ordered by recommendationId
+    @Aggregation(pipeline = {
+            "{ '$match': { 'productId': { '$in': ?0 } } }",
+            "{ '$sort': { 'productId': 1, 'recommendationId': 1 } }",
+            "{ '$group': { '_id': '$productId', 'recommendations': { '$push': '$$ROOT' } } }",
+            "{ '$project': { 'recommendations': { '$slice': ['$recommendations', ?1] } } }",
+            "{ '$unwind': '$recommendations' }",
+            "{ '$replaceRoot': { 'newRoot': '$recommendations' } }"
+    })
+    Flux<RecommendationEntity> findFirstByProductIdIn(Collection<Integer> productIds, int limit);
+
+    // The top rated recommendations of every product in one round trip, with the same fields as findTopRatedByProductId
+    @Aggregation(pipeline = {
+            "{ '$match': { 'productId': { '$in': ?0 } } }",
+            "{ '$sort': { 'productId': 1, 'rating': -1, 'recommendationId': 1 } }",
+            "{ '$group': { '_id': '$productId', 'recommendations': { '$push': { 'productId': '$productId', 'rating': '$rating', "
+                    + "'recommendationId': '$recommendationId', 'author': '$author', 'version': '$version' } } } }",
+            "{ '$project': { 'recommendations': { '$slice': ['$recommendations', ?1] } } }",
+            "{ '$unwind': '$recommendations' }",
+            "{ '$replaceRoot': { 'newRoot': '$recommendations' } }"
+    })
+    Flux<RecommendationEntity> findTopRatedByProductIdIn(Collection<Integer> productIds, int top);
+
+    // At most one document per distinct rating leaves the database
+    @Aggregation(pipeline = {
+            "{ '$match': { 'productId': ?0 } }",
+            "{ '$group': { '_id': '$rating', 'count': { '$sum': 1 } } }",
+            "{ '$sort': { '_id': 1 } }"
+    })
+    Flux<RatingCount> countRatingsByProductId(int productId);
 }
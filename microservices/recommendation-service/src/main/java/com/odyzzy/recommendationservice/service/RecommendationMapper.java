@@ -0,0 +1,24 @@
+package com.odyzzy.recommendationservice.service;
+
+import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.recommendationservice.persistence.RecommendationEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Mappings;
+
+@Mapper(componentModel = "spring")
+public interface RecommendationMapper {
+
+    @Mappings({
+            @Mapping(target = "rate", source = "entity.rating"),
+            @Mapping(target = "serviceAddress", ignore = true)
+    })
+    Recommendation entityToApi(RecommendationEntity entity);
+
+    @Mappings({
+            @Mapping(target = "rating", source = "api.rate"),
+            @Mapping(target = "id", ignore = true),
+            @Mapping(target = "version", ignore = true)
+    })
+    RecommendationEntity apiToEntity(Recommendation api);
+}
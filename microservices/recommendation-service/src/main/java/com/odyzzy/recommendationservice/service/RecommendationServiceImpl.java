@@ -1,16 +1,38 @@
 package com.odyzzy.recommendationservice.service;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
 import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.api.core.recommendation.RecommendationBulkItem;
+import com.odyzzy.api.core.recommendation.RecommendationBulkResult;
 import com.odyzzy.api.core.recommendation.RecommendationService;
+import com.odyzzy.api.core.recommendation.RecommendationStats;
 import com.odyzzy.api.exceptions.InvalidInputException;
+import com.odyzzy.recommendationservice.persistence.RatingCount;
+import com.odyzzy.recommendationservice.persistence.RecommendationEntity;
+import com.odyzzy.recommendationservice.persistence.RecommendationRepository;
+import com.odyzzy.util.http.EntityTags;
 import com.odyzzy.util.http.ServiceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 public class RecommendationServiceImpl implements RecommendationService {
@@ -18,28 +40,210 @@ public class RecommendationServiceImpl implements RecommendationService {
     private static final Logger LOGGER = LoggerFactory.getLogger(RecommendationServiceImpl.class);
 
     private final ServiceUtil serviceUtil;
+    private final RecommendationRepository repository;
+    private final RecommendationMapper mapper;
+    private final int bulkBatchSize;
+    private final int bulkConcurrency;
+    private final int bulkMaxReportedFailures;
 
-    public RecommendationServiceImpl(ServiceUtil serviceUtil) {
+    public RecommendationServiceImpl(
+            ServiceUtil serviceUtil,
+            RecommendationRepository repository,
+            RecommendationMapper mapper,
+            @Value("${app.bulk.batch-size:1000}") int bulkBatchSize,
+            @Value("${app.bulk.concurrency:2}") int bulkConcurrency,
+            @Value("${app.bulk.max-reported-failures:10000}") int bulkMaxReportedFailures) {
         this.serviceUtil = serviceUtil;
+        this.repository = repository;
+        this.mapper = mapper;
+        this.bulkBatchSize = bulkBatchSize;
+        this.bulkConcurrency = bulkConcurrency;
+        this.bulkMaxReportedFailures = bulkMaxReportedFailures;
     }
 
     @Override
-    public List<Recommendation> getRecommendations(int productId) {
+    public Flux<Recommendation> getRecommendations(int productId, Integer limit, Integer after) {
         if (productId < 1) {
             throw new InvalidInputException("Invalid ProductId: " + productId);
         }
-        if (productId == 113) {
-            LOGGER.debug("No Recommendations found for ProductId {}", productId);
-            return Collections.emptyList();
+        if (limit != null && limit < 1) {
+            throw new InvalidInputException("Invalid limit: " + limit);
+        }
+
+        LOGGER.debug("Will get recommendations for product with id={}, limit={}, after={}", productId, limit, after);
+        Pageable page = (limit == null) ? Pageable.unpaged() : PageRequest.of(0, limit);
+        int afterRecommendationId = (after == null) ? Integer.MIN_VALUE : after;
+        return repository.findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(productId, afterRecommendationId, page)
+                .map(this::toApi)
+                .collectList()
+                .flatMap(recommendations -> EntityTags.ifNoneMatch(recommendations, eTag(recommendations)))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Flux<Recommendation> getTopRecommendations(int productId, int top) {
+        if (productId < 1) {
+            throw new InvalidInputException("Invalid ProductId: " + productId);
+        }
+        if (top < 1) {
+            throw new InvalidInputException("Invalid top: " + top);
+        }
+
+        LOGGER.debug("Will get the {} top rated recommendations for product with id={}", top, productId);
+        return repository.findTopRatedByProductId(productId, PageRequest.of(0, top))
+                .map(this::toApi)
+                .collectList()
+                .flatMap(recommendations -> EntityTags.ifNoneMatch(recommendations, eTag(recommendations)))
+                .flatMapMany(Flux::fromIterable);
+    }
+
+    @Override
+    public Flux<Recommendation> getRecommendationsForProducts(List<Integer> productIds, Integer limit, Integer top) {
+        Set<Integer> distinctIds = new HashSet<>(productIds);
+        if (distinctIds.stream().anyMatch(productId -> productId < 1)) {
+            throw new InvalidInputException("Invalid productIds: " + productIds);
+        }
+        if (limit != null && limit < 1) {
+            throw new InvalidInputException("Invalid limit: " + limit);
+        }
+        if (top != null && top < 1) {
+            throw new InvalidInputException("Invalid top: " + top);
+        }
+
+        Flux<RecommendationEntity> recommendations;
+        if (top != null) {
+            recommendations = repository.findTopRatedByProductIdIn(distinctIds, top);
+        } else if (limit != null) {
+            recommendations = repository.findFirstByProductIdIn(distinctIds, limit);
+        } else {
+            recommendations = repository.findByProductIdIn(distinctIds);
+        }
+        return recommendations.map(this::toApi);
+    }
+
+    @Override
+    public Mono<RecommendationStats> getRecommendationStats(int productId) {
+        if (productId < 1) {
+            throw new InvalidInputException("Invalid ProductId: " + productId);
+        }
+
+        LOGGER.debug("Will get recommendation stats for product with id={}", productId);
+        return repository.countRatingsByProductId(productId)
+                .collectList()
+                .map(ratingCounts -> toStats(productId, ratingCounts));
+    }
+
+    // The histogram is sorted by rating, so min and max are its first and last entry
+    private RecommendationStats toStats(int productId, List<RatingCount> ratingCounts) {
+        if (ratingCounts.isEmpty()) {
+            return new RecommendationStats(productId, 0, null, null, null, Collections.emptyMap());
+        }
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        long count = 0;
+        long sum = 0;
+        for (RatingCount ratingCount : ratingCounts) {
+            histogram.put(ratingCount.getRating(), ratingCount.getCount());
+            count += ratingCount.getCount();
+            sum += (long) ratingCount.getRating() * ratingCount.getCount();
+        }
+        return new RecommendationStats(productId, count, (double) sum / count,
+                ratingCounts.get(0).getRating(), ratingCounts.get(ratingCounts.size() - 1).getRating(), histogram);
+    }
+
+    @Override
+    public Mono<Recommendation> createRecommendation(Recommendation recommendation) {
+        RecommendationEntity entity = mapper.apiToEntity(recommendation);
+        return repository.save(entity)
+                .onErrorMap(DuplicateKeyException.class, ex -> new InvalidInputException(
+                        "Duplicate key, ProductId: " + recommendation.getProductId() + ", RecommendationId: " + recommendation.getRecommendationId()))
+                .map(mapper::entityToApi);
+    }
+
+    @Override
+    public Mono<RecommendationBulkResult> createRecommendations(Flux<Recommendation> recommendations) {
+        BulkResultCollector collector = new BulkResultCollector(bulkMaxReportedFailures);
+        return recommendations
+                .index()
+                .filter(collector::accept)
+                .buffer(bulkBatchSize)
+                .flatMap(batch -> insertBatch(batch, collector), bulkConcurrency)
+                .then(Mono.fromSupplier(collector::result))
+                .doOnNext(result -> LOGGER.debug("Bulk insert received {} recommendations, created {}", result.getReceived(), result.getCreated()));
+    }
+
+    private Mono<List<BulkWriteError>> insertBatch(List<Tuple2<Long, Recommendation>> batch, BulkResultCollector collector) {
+        List<RecommendationEntity> entities = batch.stream()
+                .map(item -> mapper.apiToEntity(item.getT2()))
+                .collect(Collectors.toList());
+        return repository.insertUnordered(entities)
+                .doOnNext(errors -> collector.inserted(batch, errors));
+    }
+
+    @Override
+    public Mono<Void> deleteRecommendation(int productId) {
+        LOGGER.debug("Tries to delete recommendations for the product with productId: {}", productId);
+        return repository.deleteAll(repository.findByProductId(productId));
+    }
+
+    private String eTag(List<Recommendation> recommendations) {
+        return EntityTags.strong(EntityTags.digest(recommendations.stream()
+                .map(recommendation -> recommendation.getRecommendationId() + "." + recommendation.getVersion())
+                .collect(Collectors.joining(","))));
+    }
+
+    // Batches complete concurrently, hence the synchronization
+    private static class BulkResultCollector {
+
+        private final int maxReportedFailures;
+        private final List<RecommendationBulkItem> failures = new ArrayList<>();
+        private int received;
+        private int created;
+        private int failed;
+
+        BulkResultCollector(int maxReportedFailures) {
+            this.maxReportedFailures = maxReportedFailures;
+        }
+
+        synchronized boolean accept(Tuple2<Long, Recommendation> item) {
+            received++;
+            Recommendation recommendation = item.getT2();
+            if (recommendation.getProductId() < 1) {
+                failed(item, HttpStatus.UNPROCESSABLE_ENTITY, "Invalid ProductId: " + recommendation.getProductId());
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void inserted(List<Tuple2<Long, Recommendation>> batch, List<BulkWriteError> errors) {
+            created += batch.size() - errors.size();
+            for (BulkWriteError error : errors) {
+                Tuple2<Long, Recommendation> item = batch.get(error.getIndex());
+                if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    failed(item, HttpStatus.UNPROCESSABLE_ENTITY, "Duplicate key, ProductId: " + item.getT2().getProductId()
+                            + ", RecommendationId: " + item.getT2().getRecommendationId());
+                } else {
+                    failed(item, HttpStatus.INTERNAL_SERVER_ERROR, error.getMessage());
+                }
+            }
+        }
+
+        synchronized RecommendationBulkResult result() {
+            return new RecommendationBulkResult(received, created, failed, new ArrayList<>(failures));
+        }
+
+        private void failed(Tuple2<Long, Recommendation> item, HttpStatus status, String message) {
+            failed++;
+            if (failures.size() < maxReportedFailures) {
+                Recommendation recommendation = item.getT2();
+                failures.add(new RecommendationBulkItem(item.getT1().intValue(), recommendation.getProductId(),
+                        recommendation.getRecommendationId(), status, message));
+            }
         }
-        return getDummyRecommendations(productId);
     }
 
-    private List<Recommendation> getDummyRecommendations(int productId) {
-        List<Recommendation> recommendations = new ArrayList<>();
-        recommendations.add(new Recommendation(productId, 1, "Author 1", 1, "Content 1", serviceUtil.getServiceAddress()));
-        recommendations.add(new Recommendation(productId, 2, "Author 2", 2, "Content 2", serviceUtil.getServiceAddress()));
-        recommendations.add(new Recommendation(productId, 3, "Author 3", 3, "Content 3", serviceUtil.getServiceAddress()));
-        return recommendations;
+    private Recommendation toApi(RecommendationEntity entity) {
+        Recommendation recommendation = mapper.entityToApi(entity);
+        recommendation.setServiceAddress(serviceUtil.getServiceAddress());
+        return recommendation;
     }
 }
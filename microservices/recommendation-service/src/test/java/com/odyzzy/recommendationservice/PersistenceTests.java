@@ -0,0 +1,162 @@
+package com.odyzzy.recommendationservice;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.odyzzy.recommendationservice.persistence.RatingCount;
+import com.odyzzy.recommendationservice.persistence.RecommendationEntity;
+import com.odyzzy.recommendationservice.persistence.RecommendationRepository;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.embedded.EmbeddedMongoAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.PageRequest;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@DataMongoTest(excludeAutoConfiguration = EmbeddedMongoAutoConfiguration.class)
+public class PersistenceTests extends MongoDbTestBase {
+
+    @Autowired
+    private RecommendationRepository repository;
+
+    @BeforeEach
+    void setupDb() {
+        StepVerifier.create(repository.deleteAll()).verifyComplete();
+        StepVerifier.create(repository.save(entity(1, 1, 3))).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void insertUnordered() {
+        StepVerifier.create(repository.insertUnordered(Arrays.asList(entity(1, 2, 1), entity(1, 3, 1))))
+                .expectNextMatches(List::isEmpty)
+                .verifyComplete();
+
+        StepVerifier.create(repository.findByProductId(1).count()).expectNext(3L).verifyComplete();
+    }
+
+    @Test
+    void insertUnorderedReportsDuplicatesByIndex() {
+        List<RecommendationEntity> entities = Arrays.asList(
+                entity(1, 2, 1),
+                entity(1, 1, 1),
+                entity(1, 3, 1),
+                entity(1, 3, 2),
+                entity(1, 4, 1));
+
+        List<BulkWriteError> errors = repository.insertUnordered(entities).block();
+
+        // Unordered, so the rows after a duplicate are inserted as well
+        Assert.assertEquals("[1, 3]", errors.stream().map(BulkWriteError::getIndex).sorted().collect(Collectors.toList()).toString());
+        Assert.assertTrue(errors.stream().allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY));
+        Assert.assertEquals("[1, 2, 3, 4]", recommendationIds(repository.findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(1, 0, PageRequest.of(0, 10))
+                .collectList().block()));
+    }
+
+    @Test
+    void countRatingsByProductId() {
+        StepVerifier.create(repository.saveAll(Arrays.asList(entity(2, 1, 5), entity(2, 2, 3), entity(2, 3, 5), entity(2, 4, 1))))
+                .expectNextCount(4)
+                .verifyComplete();
+
+        List<RatingCount> ratingCounts = repository.countRatingsByProductId(2).collectList().block();
+
+        Assert.assertEquals("[1=1, 3=1, 5=2]", ratingCounts.stream()
+                .map(ratingCount -> ratingCount.getRating() + "=" + ratingCount.getCount())
+                .collect(Collectors.toList())
+                .toString());
+    }
+
+    @Test
+    void countRatingsOfProductWithoutRecommendations() {
+        StepVerifier.create(repository.countRatingsByProductId(99)).verifyComplete();
+    }
+
+    @Test
+    void topRated() {
+        StepVerifier.create(repository.saveAll(Arrays.asList(entity(3, 1, 2), entity(3, 2, 5), entity(3, 3, 5), entity(3, 4, 4))))
+                .expectNextCount(4)
+                .verifyComplete();
+
+        // Highest rating first, ties ordered by recommendationId
+        List<RecommendationEntity> topRated = repository.findTopRatedByProductId(3, PageRequest.of(0, 3)).collectList().block();
+        Assert.assertEquals("[2, 3, 4]", recommendationIds(topRated));
+        // Only the indexed fields are read
+        Assert.assertTrue(topRated.stream().allMatch(entity -> entity.getId() == null && entity.getContent() == null
+                && "a".equals(entity.getAuthor()) && entity.getVersion() != null));
+    }
+
+    @Test
+    void pagingAfterRecommendationId() {
+        StepVerifier.create(repository.saveAll(Arrays.asList(entity(4, 1, 1), entity(4, 2, 1), entity(4, 3, 1), entity(4, 4, 1), entity(4, 5, 1))))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        Assert.assertEquals("[3, 4]", recommendationIds(repository.findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(4, 2, PageRequest.of(0, 2))
+                .collectList().block()));
+        Assert.assertEquals("[5]", recommendationIds(repository.findByProductIdAndRecommendationIdGreaterThanOrderByRecommendationIdAsc(4, 4, PageRequest.of(0, 2))
+                .collectList().block()));
+    }
+
+    @Test
+    void getByProductIdIn() {
+        StepVerifier.create(repository.saveAll(Arrays.asList(entity(2, 1, 1), entity(3, 1, 1))))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        List<Integer> productIds = repository.findByProductIdIn(Arrays.asList(1, 3, 4))
+                .map(RecommendationEntity::getProductId)
+                .sort()
+                .collectList()
+                .block();
+        Assert.assertEquals("[1, 3]", productIds.toString());
+    }
+
+    @Test
+    void getFirstByProductIdIn() {
+        StepVerifier.create(repository.saveAll(Arrays.asList(entity(1, 2, 5), entity(1, 3, 4), entity(2, 3, 1), entity(2, 1, 1), entity(3, 1, 1))))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        List<RecommendationEntity> entities = repository.findFirstByProductIdIn(Arrays.asList(1, 2), 2).collectList().block();
+
+        Assert.assertEquals("[1, 2]", recommendationIds(byProduct(entities, 1)));
+        Assert.assertEquals("[1, 3]", recommendationIds(byProduct(entities, 2)));
+        Assert.assertEquals(4, entities.size());
+    }
+
+    @Test
+    void getTopRatedByProductIdIn() {
+        StepVerifier.create(repository.saveAll(Arrays.asList(entity(1, 2, 5), entity(1, 3, 4), entity(2, 3, 1), entity(2, 1, 2), entity(3, 1, 5))))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        List<RecommendationEntity> entities = repository.findTopRatedByProductIdIn(Arrays.asList(1, 2), 1).collectList().block();
+
+        Assert.assertEquals("[2]", recommendationIds(byProduct(entities, 1)));
+        Assert.assertEquals("[1]", recommendationIds(byProduct(entities, 2)));
+        Assert.assertTrue(entities.stream().allMatch(entity -> entity.getContent() == null && entity.getVersion() != null));
+    }
+
+    private List<RecommendationEntity> byProduct(List<RecommendationEntity> entities, int productId) {
+        return entities.stream().filter(entity -> entity.getProductId() == productId).collect(Collectors.toList());
+    }
+
+    private RecommendationEntity entity(int productId, int recommendationId, int rating) {
+        RecommendationEntity entity = new RecommendationEntity();
+        entity.setProductId(productId);
+        entity.setRecommendationId(recommendationId);
+        entity.setAuthor("a");
+        entity.setRating(rating);
+        entity.setContent("c");
+        return entity;
+    }
+
+    private String recommendationIds(List<RecommendationEntity> entities) {
+        return entities.stream().map(RecommendationEntity::getRecommendationId).collect(Collectors.toList()).toString();
+    }
+}
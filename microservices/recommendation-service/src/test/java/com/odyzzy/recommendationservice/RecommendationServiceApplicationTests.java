@@ -1,13 +1,162 @@
 package com.odyzzy.recommendationservice;
 
+import com.odyzzy.api.core.recommendation.Recommendation;
+import com.odyzzy.recommendationservice.persistence.RecommendationRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
 
-@SpringBootTest
-class RecommendationServiceApplicationTests {
+import java.util.Arrays;
+import java.util.List;
 
-	@Test
-	void contextLoads() {
-	}
+import static reactor.core.publisher.Mono.just;
 
+// A bulk batch size of 2 makes the bulk test span several insertMany calls
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"app.bulk.batch-size=2"})
+class RecommendationServiceApplicationTests extends MongoDbTestBase {
+
+    @Autowired
+    private RecommendationRepository repository;
+
+    @Autowired
+    private WebTestClient client;
+
+    @BeforeEach
+    void setupDb() {
+        repository.deleteAll().block();
+    }
+
+    @Test
+    void duplicateError() {
+        postAndVerifyRecommendation(1, 1, 1, HttpStatus.OK);
+
+        postAndVerifyRecommendation(1, 1, 1, HttpStatus.UNPROCESSABLE_ENTITY)
+                .jsonPath("$.path").isEqualTo("/recommendations")
+                .jsonPath("$.message").isEqualTo("Duplicate key, ProductId: 1, RecommendationId: 1");
+    }
+
+    @Test
+    void getRecommendationsInvalidParameter() {
+        getAndVerify("?productId=no-integer", HttpStatus.BAD_REQUEST)
+                .jsonPath("$.path").isEqualTo("/recommendations");
+        getAndVerify("?productId=-1", HttpStatus.UNPROCESSABLE_ENTITY)
+                .jsonPath("$.message").isEqualTo("Invalid ProductId: -1");
+        getAndVerify("?productId=1&limit=0", HttpStatus.UNPROCESSABLE_ENTITY)
+                .jsonPath("$.message").isEqualTo("Invalid limit: 0");
+        getAndVerify("?productId=1&top=0", HttpStatus.UNPROCESSABLE_ENTITY)
+                .jsonPath("$.message").isEqualTo("Invalid top: 0");
+        getAndVerify("?productIds=1,-1", HttpStatus.UNPROCESSABLE_ENTITY)
+                .jsonPath("$.message").isEqualTo("Invalid productIds: [1, -1]");
+        getAndVerify("/stats?productId=0", HttpStatus.UNPROCESSABLE_ENTITY)
+                .jsonPath("$.message").isEqualTo("Invalid ProductId: 0");
+    }
+
+    @Test
+    void getRecommendationsForProductsCutsEveryProduct() {
+        for (int productId = 1; productId <= 2; productId++) {
+            postAndVerifyRecommendation(productId, 1, 1, HttpStatus.OK);
+            postAndVerifyRecommendation(productId, 2, 5, HttpStatus.OK);
+            postAndVerifyRecommendation(productId, 3, 3, HttpStatus.OK);
+        }
+
+        getAndVerify("?productIds=1,2", HttpStatus.OK)
+                .jsonPath("$.length()").isEqualTo(6);
+        getAndVerify("?productIds=1,2&limit=2", HttpStatus.OK)
+                .jsonPath("$.length()").isEqualTo(4)
+                .jsonPath("$[?(@.productId == 1)].recommendationId").isEqualTo(Arrays.asList(1, 2));
+        getAndVerify("?productIds=1,2&top=1", HttpStatus.OK)
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].recommendationId").isEqualTo(2)
+                .jsonPath("$[1].recommendationId").isEqualTo(2);
+    }
+
+    @Test
+    void statsOfProductWithoutRecommendations() {
+        getAndVerify("/stats?productId=1", HttpStatus.OK)
+                .jsonPath("$.productId").isEqualTo(1)
+                .jsonPath("$.count").isEqualTo(0)
+                .jsonPath("$.average").doesNotExist()
+                .jsonPath("$.min").doesNotExist()
+                .jsonPath("$.max").doesNotExist()
+                .jsonPath("$.histogram").isEmpty();
+    }
+
+    @Test
+    void stats() {
+        postAndVerifyRecommendation(1, 1, 1, HttpStatus.OK);
+        postAndVerifyRecommendation(1, 2, 3, HttpStatus.OK);
+        postAndVerifyRecommendation(1, 3, 3, HttpStatus.OK);
+        postAndVerifyRecommendation(1, 4, 5, HttpStatus.OK);
+        postAndVerifyRecommendation(2, 1, 2, HttpStatus.OK);
+
+        getAndVerify("/stats?productId=1", HttpStatus.OK)
+                .jsonPath("$.count").isEqualTo(4)
+                .jsonPath("$.average").isEqualTo(3.0)
+                .jsonPath("$.min").isEqualTo(1)
+                .jsonPath("$.max").isEqualTo(5)
+                .jsonPath("$.histogram['1']").isEqualTo(1)
+                .jsonPath("$.histogram['3']").isEqualTo(2)
+                .jsonPath("$.histogram['5']").isEqualTo(1)
+                .jsonPath("$.histogram['2']").doesNotExist();
+    }
+
+    @Test
+    void bulkInsertReportsFailuresByRequestIndex() {
+        postAndVerifyRecommendation(1, 1, 1, HttpStatus.OK);
+        List<Recommendation> recommendations = Arrays.asList(
+                recommendation(1, 2, 1),
+                recommendation(1, 1, 1),
+                recommendation(1, 3, 1),
+                recommendation(-1, 1, 1),
+                recommendation(1, 3, 2),
+                recommendation(1, 4, 1));
+
+        client.post()
+                .uri("/recommendations/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(just(recommendations), List.class)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.received").isEqualTo(6)
+                .jsonPath("$.created").isEqualTo(3)
+                .jsonPath("$.failed").isEqualTo(3)
+                // The invalid row is dropped before batching, the indexes still refer to the request
+                .jsonPath("$.failures[?(@.index == 1)].message").isEqualTo("Duplicate key, ProductId: 1, RecommendationId: 1")
+                .jsonPath("$.failures[?(@.index == 3)].message").isEqualTo("Invalid ProductId: -1")
+                .jsonPath("$.failures[?(@.index == 4)].message").isEqualTo("Duplicate key, ProductId: 1, RecommendationId: 3");
+
+        getAndVerify("?productId=1", HttpStatus.OK)
+                .jsonPath("$.length()").isEqualTo(4);
+    }
+
+    private WebTestClient.BodyContentSpec getAndVerify(String path, HttpStatus expectedStatus) {
+        return client.get()
+                .uri("/recommendations" + path)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(expectedStatus)
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody();
+    }
+
+    private WebTestClient.BodyContentSpec postAndVerifyRecommendation(int productId, int recommendationId, int rate, HttpStatus expectedStatus) {
+        return client.post()
+                .uri("/recommendations")
+                .body(just(recommendation(productId, recommendationId, rate)), Recommendation.class)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isEqualTo(expectedStatus)
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody();
+    }
+
+    private Recommendation recommendation(int productId, int recommendationId, int rate) {
+        return new Recommendation(productId, recommendationId, "a", rate, "c", null);
+    }
 }
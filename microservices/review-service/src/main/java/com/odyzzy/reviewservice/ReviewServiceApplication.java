@@ -1,13 +1,37 @@
 package com.odyzzy.reviewservice;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @SpringBootApplication
 @ComponentScan("com.odyzzy")
 public class ReviewServiceApplication {
 
+	private static final Logger LOG = LoggerFactory.getLogger(ReviewServiceApplication.class);
+
+	private final int threadPoolSize;
+	private final int taskQueueSize;
+
+	public ReviewServiceApplication(
+			@Value("${app.jdbc.thread-pool-size:10}") int threadPoolSize,
+			@Value("${app.jdbc.task-queue-size:100}") int taskQueueSize) {
+		this.threadPoolSize = threadPoolSize;
+		this.taskQueueSize = taskQueueSize;
+	}
+
+	@Bean
+	public Scheduler jdbcScheduler() {
+		LOG.info("Creates a jdbcScheduler with thread pool size = {}", threadPoolSize);
+		return Schedulers.newBoundedElastic(threadPoolSize, taskQueueSize, "jdbc-pool");
+	}
+
 	public static void main(String[] args) {
 		SpringApplication.run(ReviewServiceApplication.class, args);
 	}
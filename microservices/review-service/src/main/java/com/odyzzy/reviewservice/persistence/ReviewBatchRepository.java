@@ -0,0 +1,10 @@
+package com.odyzzy.reviewservice.persistence;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReviewBatchRepository {
+
+    // The first reviews of every product ordered by reviewId, in one statement
+    List<ReviewEntity> findFirstByProductIdIn(Collection<Integer> productIds, int limit);
+}
@@ -0,0 +1,39 @@
+package com.odyzzy.reviewservice.persistence;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+class ReviewBatchRepositoryImpl implements ReviewBatchRepository {
+
+    // MySQL 5.7 has no window functions. Every branch is a range scan on reviews_unique_idx that stops after limit rows.
+    private static final String FIRST_REVIEWS_OF_PRODUCT =
+            "(SELECT * FROM reviews WHERE product_id = ? ORDER BY review_id LIMIT ?)";
+
+    private final EntityManager entityManager;
+
+    ReviewBatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public List<ReviewEntity> findFirstByProductIdIn(Collection<Integer> productIds, int limit) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Query query = entityManager.createNativeQuery(
+                String.join(" UNION ALL ", Collections.nCopies(productIds.size(), FIRST_REVIEWS_OF_PRODUCT)), ReviewEntity.class);
+        int position = 1;
+        for (int productId : productIds) {
+            query.setParameter(position++, productId);
+            query.setParameter(position++, limit);
+        }
+        return query.getResultList();
+    }
+}
@@ -1,5 +1,8 @@
 package com.odyzzy.reviewservice.persistence;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import javax.persistence.*;
 
 @Entity
@@ -12,8 +15,18 @@ import javax.persistence.*;
         })
 public class ReviewEntity {
 
+        // Allocates 50 ids per round trip from the table the previous plain @GeneratedValue used. pooled-lo reads
+        // next_val as the first free id, so existing rows keep their ids and inserts can be JDBC batched
         @Id
-        @GeneratedValue
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_id")
+        @GenericGenerator(
+                name = "review_id",
+                strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+                parameters = {
+                        @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+                        @Parameter(name = "increment_size", value = "50"),
+                        @Parameter(name = "optimizer", value = "pooled-lo")
+                })
         private int id;
 
         @Version
@@ -1,16 +1,35 @@
 package com.odyzzy.reviewservice.service;
 
 import com.odyzzy.api.core.review.Review;
+import com.odyzzy.api.core.review.ReviewBulkItem;
+import com.odyzzy.api.core.review.ReviewBulkResult;
 import com.odyzzy.api.core.review.ReviewService;
 import com.odyzzy.api.exceptions.InvalidInputException;
+import com.odyzzy.reviewservice.persistence.ReviewEntity;
+import com.odyzzy.reviewservice.persistence.ReviewRepository;
+import com.odyzzy.util.http.EntityTags;
 import com.odyzzy.util.http.ServiceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.function.Tuple2;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 public class ReviewServiceImpl implements ReviewService {
@@ -18,29 +37,190 @@ public class ReviewServiceImpl implements ReviewService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReviewServiceImpl.class);
 
     private final ServiceUtil serviceUtil;
+    private final ReviewRepository repository;
+    private final ReviewMapper mapper;
+    private final Scheduler jdbcScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final int bulkChunkSize;
+    private final int bulkMaxReportedFailures;
 
-    public ReviewServiceImpl(ServiceUtil serviceUtil) {
+    public ReviewServiceImpl(
+            ServiceUtil serviceUtil,
+            ReviewRepository repository,
+            ReviewMapper mapper,
+            @Qualifier("jdbcScheduler") Scheduler jdbcScheduler,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.bulk.chunk-size:500}") int bulkChunkSize,
+            @Value("${app.bulk.max-reported-failures:10000}") int bulkMaxReportedFailures) {
         this.serviceUtil = serviceUtil;
+        this.repository = repository;
+        this.mapper = mapper;
+        this.jdbcScheduler = jdbcScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkMaxReportedFailures = bulkMaxReportedFailures;
     }
 
     @Override
-    public List<Review> getReviews(int productId) {
+    public Flux<Review> getReviews(int productId, Integer limit, Integer after) {
         if (productId < 1) {
             throw new InvalidInputException("Invalid ProductId: " + productId);
         }
-        if (productId == 213) {
-            LOGGER.debug("No reviews found for productId: {}", productId);
-            return Collections.emptyList();
+        if (limit != null && limit < 1) {
+            throw new InvalidInputException("Invalid limit: " + limit);
         }
 
-        return getDummyReviews(productId);
+        return Mono.fromCallable(() -> internalGetReviews(productId, limit, after))
+                .flatMap(reviews -> EntityTags.ifNoneMatch(reviews, eTag(reviews)))
+                .flatMapMany(Flux::fromIterable)
+                .subscribeOn(jdbcScheduler);
     }
 
-    private List<Review> getDummyReviews(int productId) {
-        List<Review> reviews = new ArrayList<>();
-        reviews.add(new Review(productId, 1, "Author 1", "Subject 1", "Content 1", serviceUtil.getServiceAddress()));
-        reviews.add(new Review(productId, 2, "Author 2", "Subject 2", "Content 2", serviceUtil.getServiceAddress()));
-        reviews.add(new Review(productId, 3, "Author 3", "Subject 3", "Content 3", serviceUtil.getServiceAddress()));
+    @Override
+    public Flux<Review> getReviewsForProducts(List<Integer> productIds, Integer limit) {
+        Set<Integer> distinctIds = new HashSet<>(productIds);
+        if (distinctIds.stream().anyMatch(productId -> productId < 1)) {
+            throw new InvalidInputException("Invalid productIds: " + productIds);
+        }
+        if (limit != null && limit < 1) {
+            throw new InvalidInputException("Invalid limit: " + limit);
+        }
+
+        return Mono.fromCallable(() -> internalGetReviewsForProducts(distinctIds, limit))
+                .flatMapMany(Flux::fromIterable)
+                .subscribeOn(jdbcScheduler);
+    }
+
+    @Override
+    public Mono<Review> createReview(Review review) {
+        return Mono.fromCallable(() -> internalCreateReview(review))
+                .subscribeOn(jdbcScheduler);
+    }
+
+    @Override
+    public Mono<ReviewBulkResult> createReviews(Flux<Review> reviews) {
+        BulkResultCollector collector = new BulkResultCollector(bulkMaxReportedFailures);
+        return reviews
+                .index()
+                .filter(collector::accept)
+                .buffer(bulkChunkSize)
+                // One chunk at a time, every chunk is committed in its own transaction
+                .concatMap(chunk -> Mono.fromRunnable(() -> internalCreateReviews(chunk, collector)).subscribeOn(jdbcScheduler))
+                .then(Mono.fromSupplier(collector::result))
+                .doOnNext(result -> LOGGER.debug("Bulk insert received {} reviews, created {}", result.getReceived(), result.getCreated()));
+    }
+
+    @Override
+    public Mono<Void> deleteReview(int productId) {
+        return Mono.fromRunnable(() -> internalDeleteReviews(productId))
+                .subscribeOn(jdbcScheduler)
+                .then();
+    }
+
+    private List<Review> internalGetReviews(int productId, Integer limit, Integer after) {
+        Pageable page = (limit == null) ? Pageable.unpaged() : PageRequest.of(0, limit);
+        int afterReviewId = (after == null) ? Integer.MIN_VALUE : after;
+        List<Review> reviews = toApi(repository.findByProductIdAndReviewIdGreaterThanOrderByReviewIdAsc(productId, afterReviewId, page));
+        LOGGER.debug("Response size: {}", reviews.size());
         return reviews;
     }
+
+    private List<Review> internalGetReviewsForProducts(Set<Integer> productIds, Integer limit) {
+        List<Review> reviews = toApi((limit == null)
+                ? repository.findByProductIdIn(productIds)
+                : repository.findFirstByProductIdIn(productIds, limit));
+        LOGGER.debug("Response size: {} reviews for {} products", reviews.size(), productIds.size());
+        return reviews;
+    }
+
+    private Review internalCreateReview(Review review) {
+        try {
+            ReviewEntity entity = mapper.apiToEntity(review);
+            ReviewEntity savedEntity = repository.save(entity);
+            return mapper.entityToApi(savedEntity);
+        } catch (DataIntegrityViolationException dive) {
+            throw new InvalidInputException("Duplicate key, ProductId: " + review.getProductId() + ", ReviewId: " + review.getReviewId());
+        }
+    }
+
+    private void internalCreateReviews(List<Tuple2<Long, Review>> chunk, BulkResultCollector collector) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.saveAll(chunk.stream()
+                    .map(item -> mapper.apiToEntity(item.getT2()))
+                    .collect(Collectors.toList())));
+            collector.created(chunk.size());
+        } catch (DataIntegrityViolationException dive) {
+            // A single duplicate rolls back the whole chunk, retry it row by row to find the offending rows
+            LOGGER.debug("Chunk of {} reviews failed, retrying one at a time", chunk.size());
+            chunk.forEach(item -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> repository.save(mapper.apiToEntity(item.getT2())));
+                    collector.created(1);
+                } catch (DataIntegrityViolationException ex) {
+                    collector.failed(item, HttpStatus.UNPROCESSABLE_ENTITY,
+                            "Duplicate key, ProductId: " + item.getT2().getProductId() + ", ReviewId: " + item.getT2().getReviewId());
+                }
+            });
+        }
+    }
+
+    private void internalDeleteReviews(int productId) {
+        LOGGER.debug("Tries to delete reviews for the product with productId: {}", productId);
+        repository.deleteAll(repository.findByProductId(productId));
+    }
+
+    private String eTag(List<Review> reviews) {
+        return EntityTags.strong(EntityTags.digest(reviews.stream()
+                .map(review -> review.getReviewId() + "." + review.getVersion())
+                .collect(Collectors.joining(","))));
+    }
+
+    // Accessed from whichever jdbcScheduler thread runs the current chunk, hence the synchronization
+    private static class BulkResultCollector {
+
+        private final int maxReportedFailures;
+        private final List<ReviewBulkItem> failures = new ArrayList<>();
+        private int received;
+        private int created;
+        private int failed;
+
+        BulkResultCollector(int maxReportedFailures) {
+            this.maxReportedFailures = maxReportedFailures;
+        }
+
+        synchronized boolean accept(Tuple2<Long, Review> item) {
+            received++;
+            if (item.getT2().getProductId() < 1) {
+                failed(item, HttpStatus.UNPROCESSABLE_ENTITY, "Invalid ProductId: " + item.getT2().getProductId());
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void created(int count) {
+            created += count;
+        }
+
+        synchronized void failed(Tuple2<Long, Review> item, HttpStatus status, String message) {
+            failed++;
+            if (failures.size() < maxReportedFailures) {
+                Review review = item.getT2();
+                failures.add(new ReviewBulkItem(item.getT1().intValue(), review.getProductId(), review.getReviewId(), status, message));
+            }
+        }
+
+        synchronized ReviewBulkResult result() {
+            return new ReviewBulkResult(received, created, failed, new ArrayList<>(failures));
+        }
+    }
+
+    private List<Review> toApi(List<ReviewEntity> entities) {
+        return entities.stream()
+                .map(entity -> {
+                    Review review = mapper.entityToApi(entity);
+                    review.setServiceAddress(serviceUtil.getServiceAddress());
+                    return review;
+                })
+                .collect(Collectors.toList());
+    }
 }
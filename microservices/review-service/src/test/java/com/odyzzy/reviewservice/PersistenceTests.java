@@ -1,9 +1,92 @@
 package com.odyzzy.reviewservice;
 
+import com.odyzzy.reviewservice.persistence.ReviewEntity;
+import com.odyzzy.reviewservice.persistence.ReviewRepository;
+import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 public class PersistenceTests extends MySqlTestBase {
+
+    @Autowired
+    private ReviewRepository repository;
+
+    @BeforeEach
+    void setupDb() {
+        repository.deleteAll();
+        repository.save(newReview(1, 1));
+        repository.save(newReview(1, 2));
+        repository.save(newReview(2, 1));
+        repository.save(newReview(3, 1));
+    }
+
+    @Test
+    void getByProductId() {
+        List<ReviewEntity> entities = repository.findByProductId(1);
+        Assert.assertEquals(2, entities.size());
+    }
+
+    @Test
+    void getByProductIdAfterReviewId() {
+        repository.save(newReview(1, 3));
+
+        List<ReviewEntity> firstPage = repository.findByProductIdAndReviewIdGreaterThanOrderByReviewIdAsc(1, Integer.MIN_VALUE, PageRequest.of(0, 2));
+        Assert.assertEquals("[1, 2]", reviewIds(firstPage));
+
+        List<ReviewEntity> nextPage = repository.findByProductIdAndReviewIdGreaterThanOrderByReviewIdAsc(1, 2, PageRequest.of(0, 2));
+        Assert.assertEquals("[3]", reviewIds(nextPage));
+    }
+
+    @Test
+    void getByProductIdIn() {
+        List<ReviewEntity> entities = repository.findByProductIdIn(Arrays.asList(1, 3, 4));
+        Assert.assertEquals("[1, 1, 3]", entities.stream()
+                .map(r -> r.getProductId()).sorted().collect(Collectors.toList()).toString());
+    }
+
+    @Test
+    void getFirstByProductIdIn() {
+        repository.save(newReview(1, 3));
+
+        List<ReviewEntity> entities = repository.findFirstByProductIdIn(Arrays.asList(1, 3, 4), 2);
+        Assert.assertEquals("[1, 2]", reviewIds(entities.stream().filter(r -> r.getProductId() == 1).collect(Collectors.toList())));
+        Assert.assertEquals("[1]", reviewIds(entities.stream().filter(r -> r.getProductId() == 3).collect(Collectors.toList())));
+        Assert.assertEquals(3, entities.size());
+    }
+
+    @Test
+    void saveAllAllocatesDistinctIds() {
+        repository.saveAll(IntStream.rangeClosed(1, 120)
+                .mapToObj(reviewId -> newReview(4, reviewId))
+                .collect(Collectors.toList()));
+
+        List<ReviewEntity> saved = repository.findByProductId(4);
+        Assert.assertEquals(120, saved.size());
+        Assert.assertEquals(120, saved.stream().map(ReviewEntity::getId).distinct().count());
+    }
+
+    private String reviewIds(List<ReviewEntity> entities) {
+        return entities.stream().map(ReviewEntity::getReviewId).collect(Collectors.toList()).toString();
+    }
+
+    private ReviewEntity newReview(int productId, int reviewId) {
+        ReviewEntity entity = new ReviewEntity();
+        entity.setProductId(productId);
+        entity.setReviewId(reviewId);
+        entity.setAuthor("a");
+        entity.setSubject("s");
+        entity.setContent("c");
+        return entity;
+    }
 }
@@ -0,0 +1,49 @@
+package com.odyzzy.util.http;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Makes the current exchange available to {@link EntityTags#ifNoneMatch} and drops the
+ * response body once a handler has answered 304 Not Modified.
+ */
+@Component
+public class ConditionalRequestFilter implements WebFilter {
+
+    static final String EXCHANGE_CONTEXT_KEY = ConditionalRequestFilter.class.getName() + ".EXCHANGE";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerWebExchange notModifiedAware = exchange.mutate()
+                .response(new NotModifiedAwareResponse(exchange.getResponse()))
+                .build();
+        return chain.filter(notModifiedAware)
+                .contextWrite(context -> context.put(EXCHANGE_CONTEXT_KEY, notModifiedAware));
+    }
+
+    private static class NotModifiedAwareResponse extends ServerHttpResponseDecorator {
+
+        NotModifiedAwareResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                // Encoders still emit e.g. "[]" for an empty Flux, a 304 must not carry it
+                return Flux.from(body).doOnNext(DataBufferUtils::release).then(setComplete());
+            }
+            return super.writeWith(body);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.odyzzy.util.http;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Takes the correlation id from the incoming request or creates one, echoes it in the response
+ * and makes it available as exchange attribute and in the Reactor context. {@link #propagation()}
+ * forwards it on outgoing WebClient calls.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter implements WebFilter {
+
+    public static final String HEADER = "X-Correlation-ID";
+    public static final String ATTRIBUTE = CorrelationIdFilter.class.getName() + ".ID";
+
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String incoming = exchange.getRequest().getHeaders().getFirst(HEADER);
+        String correlationId = (incoming != null && VALID.matcher(incoming).matches()) ? incoming : UUID.randomUUID().toString();
+
+        exchange.getAttributes().put(ATTRIBUTE, correlationId);
+        exchange.getResponse().getHeaders().set(HEADER, correlationId);
+        return chain.filter(exchange).contextWrite(context -> context.put(ATTRIBUTE, correlationId));
+    }
+
+    public static Optional<String> get(ContextView context) {
+        return context.getOrEmpty(ATTRIBUTE);
+    }
+
+    public static ExchangeFilterFunction propagation() {
+        return (request, next) -> Mono.deferContextual(context -> get(context)
+                .map(correlationId -> next.exchange(ClientRequest.from(request).header(HEADER, correlationId).build()))
+                .orElseGet(() -> next.exchange(request)));
+    }
+}
@@ -0,0 +1,35 @@
+package com.odyzzy.util.http;
+
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String strong(String value) {
+        return "\"" + value + "\"";
+    }
+
+    public static String digest(String validator) {
+        return DigestUtils.md5DigestAsHex(validator.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sets the ETag on the current response and completes empty with status 304 if the
+     * request carried a matching If-None-Match header, otherwise emits the value.
+     */
+    public static <T> Mono<T> ifNoneMatch(T value, String eTag) {
+        return Mono.deferContextual(context -> {
+            ServerWebExchange exchange = context.getOrDefault(ConditionalRequestFilter.EXCHANGE_CONTEXT_KEY, null);
+            if (exchange != null && exchange.checkNotModified(eTag)) {
+                return Mono.empty();
+            }
+            return Mono.just(value);
+        });
+    }
+}
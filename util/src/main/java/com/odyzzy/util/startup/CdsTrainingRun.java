@@ -0,0 +1,27 @@
+package com.odyzzy.util.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the application as soon as it is ready when running with the cds-training profile. The
+ * Docker build starts every service once this way with -XX:ArchiveClassesAtExit, the JVM writes
+ * the classes loaded during startup to a class data sharing archive on exit.
+ */
+@Component
+@Profile("cds-training")
+public class CdsTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CdsTrainingRun.class);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        LOGGER.info("Training run completed, exiting");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.odyzzy.util.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.WebFilter;
+
+/**
+ * The fast-start profile turns on lazy initialization. Controllers, their advice and web filters
+ * stay eager, which also creates everything they depend on, so the first request does not pay for
+ * the request path. Everything else, such as the OpenAPI documentation, is created on first use.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("fast-start")
+public class FastStartConfiguration {
+
+    // Static, the filter is consulted by a bean factory post processor before regular beans exist
+    @Bean
+    static LazyInitializationExcludeFilter requestPathExcludeFilter() {
+        return (beanName, beanDefinition, beanType) ->
+                AnnotatedElementUtils.hasAnnotation(beanType, RestController.class)
+                        || AnnotatedElementUtils.hasAnnotation(beanType, RestControllerAdvice.class)
+                        || WebFilter.class.isAssignableFrom(beanType);
+    }
+}